@@ -0,0 +1,172 @@
+package com.digg.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Runs the packaged application (mvn package) in a child JVM and talks to it over HTTP
+final class BenchmarkApp implements AutoCloseable {
+    static final String APP_JAR = System.getProperty("digg.benchmark.app", "target/quarkus-app/quarkus-run.jar");
+    static final int PORT = Integer.getInteger("digg.benchmark.port", 18080);
+    static final String NATIVE_RUNNER = System.getProperty("digg.benchmark.native", "target/digg-1.0.0-SNAPSHOT-runner");
+    static final File LOG = new File("target/benchmark-app.log");
+    static final File DATA = new File("target/benchmark-data");
+
+    private final Process process;
+    private final URI base;
+    private final Path data;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private long startupNanos;
+
+    private BenchmarkApp(Process process, URI base, Path data) {
+        this.process = process;
+        this.base = base;
+        this.data = data;
+    }
+
+    // Starts the app with `rows` seeded users plus any extra -D properties and waits until seeding is done.
+    // Each run gets an empty database under target/benchmark-data/<name>, deleted again on close, so
+    // no run measures (or skips seeding because of) rows an earlier run left behind.
+    static BenchmarkApp start(String name, int rows, String... properties) throws Exception {
+        Path data = DATA.toPath().resolve(name);
+        delete(data);
+        return launch(false, rows, data, properties);
+    }
+
+    // With the native executable (mvn package -Pnative) instead of the JVM when nativeImage is set. The
+    // caller passes digg.db.path and owns the database, so it can restart on the same one.
+    static BenchmarkApp start(boolean nativeImage, int rows, String... properties) throws Exception {
+        return launch(nativeImage, rows, null, properties);
+    }
+
+    private static BenchmarkApp launch(boolean nativeImage, int rows, Path data, String... properties) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(nativeImage ? NATIVE_RUNNER : "java");
+        command.add("-Ddigg.seed.count=" + rows);
+        command.add("-Dquarkus.http.port=" + PORT);
+        command.add("-Dquarkus.log.level=WARN");
+        // Benchmarks measure the request path, not the per-client limits in front of it
+        command.add("-Ddigg.rate-limit.enabled=false");
+        if (data != null) {
+            command.add("-Ddigg.db.path=" + data.resolve("digg").toAbsolutePath());
+        }
+        for (String property : properties) {
+            command.add("-D" + property);
+        }
+        if (!nativeImage) {
+            command.add("-jar");
+            command.add(APP_JAR);
+        }
+
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(LOG)
+                .start();
+        BenchmarkApp app = new BenchmarkApp(process, URI.create("http://localhost:" + PORT), data);
+        try {
+            app.awaitSeeded(rows, Duration.ofMinutes(15));
+            app.startupNanos = System.nanoTime() - launched;
+        } catch (Exception e) {
+            app.close();
+            throw e;
+        }
+        return app;
+    }
+
+    private void awaitSeeded(int rows, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited, see " + LOG);
+            }
+            try {
+                HttpResponse<String> response = get("/users/count");
+                if (response.statusCode() == 200 && countOf(response.body()) >= rows) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Application not seeded with " + rows + " users after " + timeout);
+    }
+
+    private static long countOf(String json) {
+        return Long.parseLong(json.replaceAll("\\D", ""));
+    }
+
+    // From launching the process until /users/count first reported the seeded rows
+    long startupNanos() {
+        return startupNanos;
+    }
+
+    // Resident set size of the application process, read from /proc (Linux only)
+    long rssKb() throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", Long.toString(process.pid()), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        throw new IllegalStateException("No VmRSS for process " + process.pid());
+    }
+
+    HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(base.resolve(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Body exactly as sent on the wire; HttpClient does not decompress, so gzip responses stay gzipped
+    HttpResponse<byte[]> getRaw(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                .header("Accept-Encoding", acceptEncoding)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    HttpResponse<String> send(String method, String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Override
+    public void close() throws InterruptedException, IOException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+        if (data != null) {
+            delete(data);
+        }
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
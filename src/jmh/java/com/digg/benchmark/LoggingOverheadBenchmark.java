@@ -0,0 +1,67 @@
+package com.digg.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Request throughput with the sampled access log versus logging every request and every SQL statement
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class LoggingOverheadBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"sampled", "verbose"})
+    String logging;
+
+    private BenchmarkApp app;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        // Both runs log at INFO (BenchmarkApp defaults to WARN, which would silence the access log);
+        // they differ only in the access log sample rate and SQL logging
+        app = "verbose".equals(logging)
+                ? BenchmarkApp.start("logging-overhead/" + logging, ROWS,
+                        "quarkus.log.level=INFO",
+                        "digg.access-log.sample-rate=1",
+                        "quarkus.hibernate-orm.log.sql=true")
+                : BenchmarkApp.start("logging-overhead/" + logging, ROWS,
+                        "quarkus.log.level=INFO",
+                        "digg.access-log.sample-rate=100",
+                        "quarkus.hibernate-orm.log.sql=false");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        app.close();
+    }
+
+    @Benchmark
+    public String getById() throws Exception {
+        return app.get("/users/" + (1 + ThreadLocalRandom.current().nextInt(ROWS))).body();
+    }
+
+    @Benchmark
+    public String search() throws Exception {
+        return app.get("/users/search?name=ann&limit=20").body();
+    }
+}
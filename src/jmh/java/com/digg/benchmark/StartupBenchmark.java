@@ -0,0 +1,86 @@
+package com.digg.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.ToLongFunction;
+
+// Compares the packaged JVM application with the native executable on the same seeded dataset:
+// time from launch until /users/count reports every user, and resident memory once ready and
+// after a short burst of reads. "cold" starts on an empty database file, so DataInitializer
+// seeds it; "warm" restarts on the file the cold run left behind.
+//   mvn package -DskipTests && mvn package -Pnative -DskipTests
+//   mvn -Pjmh test-compile exec:java -Dexec.mainClass=com.digg.benchmark.StartupBenchmark -Dexec.classpathScope=test
+public final class StartupBenchmark {
+
+    private static final File DATA = new File("target/startup-benchmark");
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("rows", 100_000);
+        int runs = Integer.getInteger("runs", 5);
+        List<String> modes = List.of(System.getProperty("modes", "jvm,native").split(","));
+
+        System.out.printf(Locale.ROOT, "%d users, median of %d runs%n", rows, runs);
+        System.out.printf(Locale.ROOT, "%-7s %-5s %10s %12s %14s%n", "mode", "db", "ready ms", "rss ready MB", "rss loaded MB");
+        for (String mode : modes) {
+            boolean nativeImage = mode.equals("native");
+            if (nativeImage && !new File(BenchmarkApp.NATIVE_RUNNER).canExecute()) {
+                System.out.println("No native executable at " + BenchmarkApp.NATIVE_RUNNER + ", build it with mvn package -Pnative");
+                continue;
+            }
+            Path db = DATA.toPath().resolve(mode).resolve("digg");
+            List<Sample> cold = new ArrayList<>();
+            List<Sample> warm = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                BenchmarkApp.delete(db.getParent());
+                cold.add(measure(nativeImage, rows, db));
+                warm.add(measure(nativeImage, rows, db));
+            }
+            print(mode, "cold", cold);
+            print(mode, "warm", warm);
+        }
+    }
+
+    private static Sample measure(boolean nativeImage, int rows, Path db) throws Exception {
+        try (BenchmarkApp app = BenchmarkApp.start(nativeImage, rows,
+                "digg.seed.seed=42", "digg.db.path=" + db.toAbsolutePath())) {
+            long ready = app.rssKb();
+            load(app, rows);
+            return new Sample(app.startupNanos(), ready, app.rssKb());
+        }
+    }
+
+    // Enough reads to fill the lookup cache and warm up the request path
+    private static void load(BenchmarkApp app, int rows) throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 2000; i++) {
+            HttpResponse<String> response = app.get("/users/" + (1 + random.nextInt(rows)));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET /users/{id} returned " + response.statusCode());
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            app.get("/users?limit=500");
+            app.get("/users/search?name=smith");
+        }
+    }
+
+    private static void print(String mode, String db, List<Sample> samples) {
+        System.out.printf(Locale.ROOT, "%-7s %-5s %10.0f %12.1f %14.1f%n", mode, db,
+                median(samples, Sample::startupNanos) / 1e6,
+                median(samples, Sample::readyRssKb) / 1024.0,
+                median(samples, Sample::loadedRssKb) / 1024.0);
+    }
+
+    private static long median(List<Sample> samples, ToLongFunction<Sample> metric) {
+        long[] values = samples.stream().mapToLong(metric).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private record Sample(long startupNanos, long readyRssKb, long loadedRssKb) {}
+}
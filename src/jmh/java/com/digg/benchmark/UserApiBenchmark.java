@@ -0,0 +1,99 @@
+package com.digg.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// End-to-end /users handlers against the packaged app seeded by DataInitializer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserApiBenchmark {
+
+    // Ids 1..SAMPLE_SIZE are read for their email and name; updates only touch ids above it
+    private static final int SAMPLE_SIZE = 500;
+
+    @Param({"10000", "1000000"})
+    int rows;
+
+    private BenchmarkApp app;
+    private final List<String> emails = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        app = BenchmarkApp.start("user-api/" + rows, rows);
+        JsonNode sample = new ObjectMapper().readTree(app.get("/users?limit=" + SAMPLE_SIZE).body()).get("items");
+        for (JsonNode user : sample) {
+            emails.add(user.get("email").asText());
+            names.add(user.get("name").asText().split(" ")[0]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        app.close();
+    }
+
+    @Benchmark
+    public String getById() throws Exception {
+        return app.get("/users/" + (1 + random().nextInt(rows))).body();
+    }
+
+    @Benchmark
+    public String getByEmail() throws Exception {
+        String email = emails.get(random().nextInt(emails.size()));
+        return app.get("/users/email/" + URLEncoder.encode(email, StandardCharsets.UTF_8)).body();
+    }
+
+    @Benchmark
+    public String searchByName() throws Exception {
+        String name = names.get(random().nextInt(names.size()));
+        return app.get("/users/search?name=" + URLEncoder.encode(name, StandardCharsets.UTF_8)).body();
+    }
+
+    @Benchmark
+    public String create() throws Exception {
+        long n = created.incrementAndGet();
+        return app.send("POST", "/users", user("Bench Create " + n, "bench-create-" + n + "@example.com")).body();
+    }
+
+    @Benchmark
+    public String update() throws Exception {
+        int id = SAMPLE_SIZE + 1 + random().nextInt(rows - SAMPLE_SIZE);
+        return app.send("PUT", "/users/" + id, user("Bench Update " + id, "bench-update-" + id + "@example.com")).body();
+    }
+
+    private static String user(String name, String email) {
+        return "{\"name\": \"" + name + "\", \"address\": \"1 Benchmark St, Springfield, CA 90210\", "
+                + "\"email\": \"" + email + "\", \"telephone\": \"(555) 123-4567\"}";
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
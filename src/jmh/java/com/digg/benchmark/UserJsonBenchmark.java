@@ -0,0 +1,76 @@
+package com.digg.benchmark;
+
+import com.digg.dto.UserPage;
+import com.digg.entity.User;
+import com.digg.resource.UserListWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.core.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// In-process Jackson serialization of user list response bodies: a List<User> rendered into one
+// byte[] (the default Jackson writer) versus streamed through the real UserListWriter, which
+// serves search results; and the UserPage that GET /users returns, which still goes through the
+// default writer. Compare gc.alloc.rate.norm (the gc profiler runs by default) for the
+// allocation per response.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserJsonBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final UserListWriter listWriter = new UserListWriter(mapper);
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private List<User> users;
+    private UserPage<User> page;
+
+    @Setup
+    public void createUsers() {
+        users = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            User user = new User("Alice Anderson" + i, i + " Main St, Springfield, CA 90210",
+                    "alice.anderson" + i + "@example.com", "(555) 123-4567");
+            user.id = (long) i;
+            users.add(user);
+        }
+        page = new UserPage<>(users, UserPage.encodeCursor(size));
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public void streamList() throws IOException {
+        listWriter.writeTo(users, List.class, List.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE, null, sink);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,57 @@
+package com.digg.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// Latency and bytes on the wire of large list responses, with and without gzip. The body size
+// of each path is printed once per trial since it does not change between requests.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserListResponseBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"identity", "gzip"})
+    String encoding;
+
+    @Param({"/users/export", "/users?limit=500", "/users?limit=500&fields=name,email"})
+    String path;
+
+    private BenchmarkApp app;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        app = BenchmarkApp.start("user-list-response/" + encoding, ROWS);
+        HttpResponse<byte[]> response = app.getRaw(path, encoding);
+        System.out.printf("%n%s (%s): %d bytes, Content-Encoding %s%n", path, encoding, response.body().length,
+                response.headers().firstValue("Content-Encoding").orElse("none"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        app.close();
+    }
+
+    @Benchmark
+    public byte[] list() throws Exception {
+        return app.getRaw(path, encoding).body();
+    }
+}
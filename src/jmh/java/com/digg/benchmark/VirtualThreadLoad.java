@@ -0,0 +1,73 @@
+package com.digg.benchmark;
+
+import com.digg.dto.UserPage;
+
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fires bursts of concurrent GET /users pages at the app once with virtual threads and once
+// with worker threads (quarkus.virtual-threads.enabled=false) and prints latency percentiles.
+//   mvn -Pjmh test-compile exec:java -Dexec.mainClass=com.digg.benchmark.VirtualThreadLoad -Dexec.classpathScope=test
+public final class VirtualThreadLoad {
+
+    private static final int ROWS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("concurrency", 5000);
+        int rounds = Integer.getInteger("rounds", 5);
+
+        for (String mode : List.of("virtual", "worker")) {
+            try (BenchmarkApp app = BenchmarkApp.start("virtual-thread-load/" + mode, ROWS, "quarkus.virtual-threads.enabled=" + mode.equals("virtual"))) {
+                burst(app, concurrency, new AtomicInteger());
+                AtomicInteger errors = new AtomicInteger();
+                long[] latencies = new long[concurrency * rounds];
+                for (int round = 0; round < rounds; round++) {
+                    long[] burst = burst(app, concurrency, errors);
+                    System.arraycopy(burst, 0, latencies, round * concurrency, concurrency);
+                }
+                Arrays.sort(latencies);
+                System.out.printf(Locale.ROOT, "%-8s concurrency=%d requests=%d errors=%d p50=%.1fms p99=%.1fms max=%.1fms%n",
+                        mode, concurrency, latencies.length, errors.get(),
+                        percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+            }
+        }
+    }
+
+    private static long[] burst(BenchmarkApp app, int concurrency, AtomicInteger errors) throws InterruptedException {
+        long[] latencies = new long[concurrency];
+        CountDownLatch go = new CountDownLatch(1);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int slot = i;
+                clients.submit(() -> {
+                    go.await();
+                    long after = ThreadLocalRandom.current().nextInt(ROWS);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = app.get("/users?limit=100&after=" + UserPage.encodeCursor(after));
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[slot] = System.nanoTime() - start;
+                    return null;
+                });
+            }
+            go.countDown();
+        }
+        return latencies;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
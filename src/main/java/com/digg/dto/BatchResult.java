@@ -0,0 +1,19 @@
+package com.digg.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import jakarta.ws.rs.core.Response;
+
+// Outcome of one item of a batch request; index points into the request array
+@RegisterForReflection
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(int index, Long id, int status, String error) {
+
+    public static BatchResult ok(int index, Long id, Response.Status status) {
+        return new BatchResult(index, id, status.getStatusCode(), null);
+    }
+
+    public static BatchResult failed(int index, Long id, Response.Status status, String error) {
+        return new BatchResult(index, id, status.getStatusCode(), error);
+    }
+}
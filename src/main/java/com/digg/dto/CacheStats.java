@@ -0,0 +1,15 @@
+package com.digg.dto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+// Snapshot of a cache's counters since startup
+@RegisterForReflection
+public record CacheStats(long size, long hits, long misses, long evictions, double hitRate) {
+
+    public static CacheStats of(Cache<?, ?> cache) {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+        return new CacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+}
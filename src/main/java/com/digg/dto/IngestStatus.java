@@ -0,0 +1,29 @@
+package com.digg.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+// State of a user submitted with POST /users?async=true: queued, then created (with the new
+// user's id) or failed (with the reason)
+@RegisterForReflection
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IngestStatus(String id, String status, Long userId, String error) {
+
+    public static final String QUEUED = "queued";
+    public static final String CREATED = "created";
+    public static final String FAILED = "failed";
+
+    public static IngestStatus queued(String id) {
+        return new IngestStatus(id, QUEUED, null, null);
+    }
+
+    public static IngestStatus of(String id, BatchResult result) {
+        return result.error() == null
+                ? new IngestStatus(id, CREATED, result.id(), null)
+                : new IngestStatus(id, FAILED, null, result.error());
+    }
+
+    public static IngestStatus failed(String id, String error) {
+        return new IngestStatus(id, FAILED, null, error);
+    }
+}
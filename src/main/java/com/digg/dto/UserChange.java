@@ -0,0 +1,26 @@
+package com.digg.dto;
+
+import com.digg.entity.User;
+import com.digg.entity.UserEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.util.Locale;
+
+// One entry of the /users/changes feed. type is created, updated or deleted, or reset when the
+// client missed more changes than the server keeps and must reload. user is the new state when
+// known; an update without it (e.g. from PATCH) means the client should fetch the user by id.
+@RegisterForReflection
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserChange(long seq, String type, Long id, User user) {
+
+    public static final String RESET = "reset";
+
+    public static UserChange of(long seq, UserEvent event) {
+        return new UserChange(seq, event.type().name().toLowerCase(Locale.ROOT), event.id(), event.user());
+    }
+
+    public static UserChange reset(long seq) {
+        return new UserChange(seq, RESET, null, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.digg.dto;
+
+import com.digg.entity.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+// One requested id of a multi-get and the user it resolved to; user is omitted when not found
+@RegisterForReflection
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserLookup(Long id, boolean found, User user) {
+
+    public static UserLookup of(Long id, User user) {
+        return new UserLookup(id, user != null, user);
+    }
+}
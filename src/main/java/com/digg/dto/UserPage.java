@@ -0,0 +1,27 @@
+package com.digg.dto;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+// One page of users (entities or field projections) plus the opaque cursor for the next page,
+// null on the last page
+@RegisterForReflection
+public record UserPage<T>(List<T> items, String nextCursor) {
+
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decodeCursor(String cursor) {
+        try {
+            byte[] decoded = Base64.getUrlDecoder().decode(cursor);
+            return Long.parseLong(new String(decoded, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
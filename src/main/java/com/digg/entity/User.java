@@ -1,16 +1,61 @@
 package com.digg.entity;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Query;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.Session;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Also written by Jackson from records and the streaming list writer, which native-image
+// analysis cannot trace back to a resource method return type
+@RegisterForReflection
 @Entity
-@Table(name = "users")
-public class User extends PanacheEntity {
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"))
+@EntityListeners(UserEventListener.class)
+@DynamicUpdate
+public class User extends PanacheEntityBase {
+
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
+    // Ids are reserved in blocks so batched inserts do not need a sequence round trip per row
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    // Ids per IN query of loadAll
+    public static final int MULTI_LOAD_BATCH_SIZE = 500;
+
+    // Fields a client may change through PATCH
+    public static final Set<String> PATCHABLE_FIELDS = Set.of("name", "address", "email", "telephone");
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_SEQ", allocationSize = ID_ALLOCATION_SIZE)
+    public Long id;
+
+    // Bumped by every UPDATE; Hibernate adds it to the WHERE clause so concurrent writes fail
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public long version;
 
     @NotBlank(message = "Name is required")
     public String name;
@@ -42,4 +87,60 @@ public class User extends PanacheEntity {
     public static List<User> findByName(String name) {
         return find("name LIKE ?1", "%" + name + "%").list();
     }
-}
\ No newline at end of file
+
+    // Case-insensitive substring match straight from the table, for when the search index is not ready
+    public static List<User> findByName(String name, int limit) {
+        String pattern = "%" + name.trim().toLowerCase(Locale.ROOT) + "%";
+        return find("lower(name) like ?1", Sort.by("name").and("id"), pattern).range(0, limit - 1).list();
+    }
+
+    // Loads the given ids in the order of the list, skipping ids that no longer exist
+    public static List<User> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<User> users = list("id in ?1", ids);
+        Map<Long, User> byId = users.stream().collect(Collectors.toMap(user -> user.id, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Loads up to MULTI_LOAD_BATCH_SIZE ids per IN query through Hibernate multi-load. The result
+    // is aligned with `ids`, with null where a user does not exist. Users loaded here are read-only;
+    // the session's default is restored afterwards, so later loads and writes are unaffected.
+    public static List<User> loadAll(List<Long> ids) {
+        Session session = getEntityManager().unwrap(Session.class);
+        boolean readOnly = session.isDefaultReadOnly();
+        session.setDefaultReadOnly(true);
+        try {
+            return session.byMultipleIds(User.class)
+                    .withBatchSize(MULTI_LOAD_BATCH_SIZE)
+                    .multiLoad(ids);
+        } finally {
+            session.setDefaultReadOnly(readOnly);
+        }
+    }
+
+    // Keyset page: the next `limit` users with an id greater than `afterId`, in id order
+    public static List<User> findPage(long afterId, int limit) {
+        return find("id > ?1", Sort.by("id"), afterId).range(0, limit - 1).list();
+    }
+
+    // One UPDATE of only the given fields (keys from PATCHABLE_FIELDS) that also bumps the version.
+    // With an expected version the row is only written if it is still at that version.
+    public static int patch(Long id, Map<String, String> fields, Long expectedVersion) {
+        StringBuilder hql = new StringBuilder("update User set version = version + 1");
+        fields.keySet().forEach(field -> hql.append(", ").append(field).append(" = :").append(field));
+        hql.append(" where id = :id");
+        if (expectedVersion != null) {
+            hql.append(" and version = :version");
+        }
+
+        Query update = getEntityManager().createQuery(hql.toString());
+        fields.forEach(update::setParameter);
+        update.setParameter("id", id);
+        if (expectedVersion != null) {
+            update.setParameter("version", expectedVersion);
+        }
+        return update.executeUpdate();
+    }
+}
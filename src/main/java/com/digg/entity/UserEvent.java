@@ -0,0 +1,20 @@
+package com.digg.entity;
+
+// Fired for every user insert, update and delete; observers usually listen AFTER_SUCCESS.
+// user is a detached copy of the new state, null for deletes and for bulk updates that never
+// loaded the row.
+public record UserEvent(Type type, Long id, String name, String email, User user) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static UserEvent of(Type type, User user) {
+        return new UserEvent(type, user.id, user.name, user.email, type == Type.DELETED ? null : snapshot(user));
+    }
+
+    private static User snapshot(User user) {
+        User copy = new User(user.name, user.address, user.email, user.telephone);
+        copy.id = user.id;
+        copy.version = user.version;
+        return copy;
+    }
+}
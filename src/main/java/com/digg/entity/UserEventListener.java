@@ -0,0 +1,30 @@
+package com.digg.entity;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Turns JPA lifecycle callbacks on User into CDI UserEvents
+public class UserEventListener {
+
+    @PostPersist
+    void created(User user) {
+        fire(UserEvent.of(UserEvent.Type.CREATED, user));
+    }
+
+    @PostUpdate
+    void updated(User user) {
+        fire(UserEvent.of(UserEvent.Type.UPDATED, user));
+    }
+
+    @PostRemove
+    void deleted(User user) {
+        fire(UserEvent.of(UserEvent.Type.DELETED, user));
+    }
+
+    // Bulk HQL statements bypass the callbacks above and must fire their events through here
+    public static void fire(UserEvent event) {
+        Arc.container().beanManager().getEvent().select(UserEvent.class).fire(event);
+    }
+}
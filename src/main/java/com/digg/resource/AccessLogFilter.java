@@ -0,0 +1,33 @@
+package com.digg.resource;
+
+import com.digg.service.AccessLog;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+// Times every REST request and hands sampled ones to the AccessLog
+public class AccessLogFilter {
+    private static final String START = AccessLogFilter.class.getName() + ".start";
+
+    @Inject
+    AccessLog accessLog;
+
+    @ServerRequestFilter
+    public void start(ContainerRequestContext request) {
+        request.setProperty(START, System.nanoTime());
+    }
+
+    @ServerResponseFilter
+    public void finish(ContainerRequestContext request, ContainerResponseContext response) {
+        if (!(request.getProperty(START) instanceof Long start)) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        int status = response.getStatus();
+        if (accessLog.sample(status)) {
+            accessLog.record(request.getMethod(), request.getUriInfo().getPath(), status, duration);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.digg.resource;
+
+import com.digg.entity.User;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
+
+import java.util.Locale;
+
+// Maps database constraint failures raised while flushing to 409 responses, and versioned
+// writes that lost a race with another transaction to 412
+public class PersistenceExceptionMapper {
+    private static final Logger log = Logger.getLogger(PersistenceExceptionMapper.class);
+
+    @ServerExceptionMapper
+    public Response mapPersistenceException(PersistenceException e) {
+        ConstraintViolationException violation = findCause(e, ConstraintViolationException.class);
+        if (violation != null) {
+            String message = isEmailConstraint(violation) ? "Email already exists" : "Constraint violation";
+            log.debugf("Rejected write: %s", message);
+            return error(Response.Status.CONFLICT, message);
+        }
+
+        if (findCause(e, OptimisticLockException.class) != null || findCause(e, StaleStateException.class) != null) {
+            log.debug("Rejected write: stale version");
+            return error(Response.Status.PRECONDITION_FAILED, "User has been modified");
+        }
+
+        log.error("Persistence failure", e);
+        return error(Response.Status.INTERNAL_SERVER_ERROR, "Internal server error");
+    }
+
+    private static boolean isEmailConstraint(ConstraintViolationException violation) {
+        String name = violation.getConstraintName() != null ? violation.getConstraintName() : violation.getMessage();
+        return name != null && name.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT);
+    }
+
+    static Response error(Response.Status status, String message) {
+        return Response.status(status)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"error\": \"" + message + "\"}")
+                .build();
+    }
+
+    static <T extends Throwable> T findCause(Throwable e, Class<T> type) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
+    }
+}
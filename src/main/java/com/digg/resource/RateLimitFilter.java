@@ -0,0 +1,75 @@
+package com.digg.resource;
+
+import com.digg.service.RateLimiter;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Applies the RateLimiter to endpoints marked @RateLimited and answers 429 with Retry-After.
+// Clients are told apart by remote address (the X-Forwarded-For address when
+// quarkus.http.proxy.proxy-address-forwarding is on).
+public class RateLimitFilter {
+
+    @Inject
+    RateLimiter limiter;
+
+    // Resolved once per resource method instead of reading annotations on every request
+    private final ConcurrentHashMap<Method, Optional<Endpoint>> endpoints = new ConcurrentHashMap<>();
+
+    @ServerRequestFilter
+    public Response limit(ResourceInfo resource, RoutingContext routing) {
+        Method method = resource.getResourceMethod();
+        if (!limiter.isEnabled() || method == null) {
+            return null;
+        }
+        Endpoint endpoint = endpoints.computeIfAbsent(method, RateLimitFilter::endpoint).orElse(null);
+        if (endpoint == null) {
+            return null;
+        }
+
+        long wait = limiter.admit(endpoint.group(), client(routing), endpoint.name());
+        if (wait > 0) {
+            return tooManyRequests(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+        if (endpoint.group() == RateLimiter.Group.EXPENSIVE) {
+            if (!limiter.tryEnter()) {
+                return tooManyRequests(1);
+            }
+            // Held until the response is fully written, so streamed exports count as in flight
+            routing.addEndHandler(ignored -> limiter.release());
+        }
+        return null;
+    }
+
+    private static Optional<Endpoint> endpoint(Method method) {
+        RateLimited limited = method.getAnnotation(RateLimited.class);
+        return limited == null
+                ? Optional.empty()
+                : Optional.of(new Endpoint(method.getDeclaringClass().getSimpleName() + "." + method.getName(), limited.value()));
+    }
+
+    private static String client(RoutingContext routing) {
+        SocketAddress address = routing.request().remoteAddress();
+        return address == null ? "unknown" : address.hostAddress();
+    }
+
+    private static Response tooManyRequests(long retryAfterSeconds) {
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"error\": \"Too many requests, retry later\"}")
+                .build();
+    }
+
+    private record Endpoint(String name, RateLimiter.Group group) {}
+}
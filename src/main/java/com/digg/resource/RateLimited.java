@@ -0,0 +1,15 @@
+package com.digg.resource;
+
+import com.digg.service.RateLimiter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Puts an endpoint under the limits of the given group; enforced by RateLimitFilter
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RateLimited {
+    RateLimiter.Group value();
+}
@@ -1,171 +1,669 @@
 package com.digg.resource;
 
+import com.digg.dto.BatchResult;
+import com.digg.dto.CacheStats;
+import com.digg.dto.IngestStatus;
+import com.digg.dto.UserChange;
+import com.digg.dto.UserLookup;
+import com.digg.dto.UserPage;
 import com.digg.entity.User;
+import com.digg.entity.UserEvent;
+import com.digg.entity.UserEventListener;
+import com.digg.service.RateLimiter.Group;
+import com.digg.service.UserBatchService;
+import com.digg.service.UserCache;
+import com.digg.service.UserChangeFeed;
+import com.digg.service.UserChangeTracker;
+import com.digg.service.UserCounter;
+import com.digg.service.UserExporter;
+import com.digg.service.UserIngestQueue;
+import com.digg.service.UserProjections;
+import com.digg.service.UserSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.common.annotation.NonBlocking;
+import io.quarkus.vertx.http.Compressed;
+import io.quarkus.vertx.http.Uncompressed;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericEntity;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 
 @Path("/users")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class UserResource {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_SEARCH_LIMIT = 50;
+    static final int MAX_LOOKUP_IDS = 2000;
+
+    static final String TIMER = "users.requests";
+
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    // Clients may keep responses but must revalidate them with the ETag
+    private static final CacheControl REVALIDATE = revalidate();
+
     @Inject
     Logger log;
 
+    @Inject
+    UserExporter exporter;
+
+    @Inject
+    UserSearchIndex searchIndex;
+
+    @Inject
+    UserProjections projections;
+
+    @Inject
+    UserBatchService batchService;
+
+    @Inject
+    UserCache userCache;
+
+    @Inject
+    UserCounter userCounter;
+
+    @Inject
+    UserChangeTracker changeTracker;
+
+    @Inject
+    UserChangeFeed changeFeed;
+
+    @Inject
+    UserIngestQueue ingestQueue;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    MeterRegistry registry;
+
+    private DistributionSummary listSizes;
+    private DistributionSummary searchSizes;
+
+    @PostConstruct
+    void registerMeters() {
+        listSizes = resultSize("getAllUsers");
+        searchSizes = resultSize("searchUsersByName");
+    }
+
+    private DistributionSummary resultSize(String operation) {
+        return DistributionSummary.builder("users.result.size")
+                .description("Users returned per list/search response")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
     @GET
-    public List<User> getAllUsers() {
-        log.info("Fetching all users");
-        List<User> users = User.listAll();
-        log.debugf("Found %d users", users.size());
-        return users;
+    @Compressed
+    @Timed(value = TIMER, extraTags = {"operation", "getAllUsers"}, histogram = true)
+    @RateLimited(Group.EXPENSIVE)
+    public Response getAllUsers(@QueryParam("after") String after, @QueryParam("limit") Integer limit,
+                                @QueryParam("fields") String fields, @QueryParam("ids") List<String> ids,
+                                @Context Request request) {
+        EntityTag tag = changeTracker.tag();
+        Response notModified = notModified(request, tag);
+        if (notModified != null) {
+            return notModified;
+        }
+
+        if (!ids.isEmpty()) {
+            return lookupUsers(ids, tag);
+        }
+
+        List<String> selected;
+        try {
+            selected = fields == null ? null : UserProjections.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return unknownField();
+        }
+
+        long afterId;
+        try {
+            afterId = after == null ? 0L : UserPage.decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"Invalid cursor\"}")
+                    .build();
+        }
+
+        if (!validLimit(limit)) {
+            return invalidLimit();
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+
+        // Without after/limit this is the first page; the whole table is only available through /export.
+        // Fetch one extra row to find out whether another page follows
+        UserPage<?> result = selected == null
+                ? page(User.findPage(afterId, pageSize + 1), pageSize, user -> user.id)
+                : page(projections.page(selected, afterId, pageSize + 1), pageSize, row -> (Long) row.get("id"));
+        listSizes.record(result.items().size());
+        return Response.ok(result).tag(tag).cacheControl(REVALIDATE).build();
+    }
+
+    // Multi-get: ids=1,2,3 (or repeated ids=) answered in request order, one entry per requested id
+    private Response lookupUsers(List<String> params, EntityTag tag) {
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String param : params) {
+                for (String id : param.split(",")) {
+                    if (!id.isBlank()) {
+                        ids.add(Long.valueOf(id.trim()));
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"Ids must be numbers\"}")
+                    .build();
+        }
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"At most " + MAX_LOOKUP_IDS + " ids per request\"}")
+                    .build();
+        }
+
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        List<User> loaded = User.loadAll(distinct);
+        Map<Long, User> byId = new HashMap<>();
+        for (int i = 0; i < distinct.size(); i++) {
+            byId.put(distinct.get(i), loaded.get(i));
+        }
+        List<UserLookup> results = ids.stream().map(id -> UserLookup.of(id, byId.get(id))).toList();
+        listSizes.record(results.size());
+        return Response.ok(results).tag(tag).cacheControl(REVALIDATE).build();
+    }
+
+    private static <T> UserPage<T> page(List<T> rows, int pageSize, ToLongFunction<T> idOf) {
+        if (rows.size() <= pageSize) {
+            return new UserPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new UserPage<>(items, UserPage.encodeCursor(idOf.applyAsLong(items.get(pageSize - 1))));
+    }
+
+    // Entity lists keep their element type so UserListWriter streams them; projections go to Jackson
+    @SuppressWarnings("unchecked")
+    private static Object listBody(List<?> rows, List<String> selected) {
+        return selected == null ? new GenericEntity<List<User>>((List<User>) rows) {} : rows;
+    }
+
+    private static Response unknownField() {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity("{\"error\": \"Unknown field, allowed: id, version, name, address, email, telephone\"}")
+                .build();
+    }
+
+    // List and search take the same limits: absent for the default, otherwise 1..MAX_PAGE_SIZE
+    private static boolean validLimit(Integer limit) {
+        return limit == null || (limit >= 1 && limit <= MAX_PAGE_SIZE);
+    }
+
+    private static Response invalidLimit() {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity("{\"error\": \"Limit must be between 1 and " + MAX_PAGE_SIZE + "\"}")
+                .build();
     }
 
     @GET
     @Path("/{id}")
-    public Response getUserById(@PathParam("id") Long id) {
-        log.infof("Fetching user by ID: %d", id);
-        User user = User.findById(id);
+    @Uncompressed
+    @Timed(value = TIMER, extraTags = {"operation", "getUserById"}, histogram = true)
+    @RateLimited(Group.READ)
+    public Response getUserById(@PathParam("id") Long id, @Context Request request) {
+        User user = userCache.findById(id);
         if (user == null) {
-            log.warnf("User not found with ID: %d", id);
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("{\"error\": \"User not found\"}")
                     .build();
         }
-        log.debugf("Successfully found user: %s (ID: %d)", user.name, id);
-        return Response.ok(user).build();
+        return conditionalOk(request, user);
     }
 
     @GET
     @Path("/search")
-    public List<User> searchUsersByName(@QueryParam("name") String name) {
-        if (name == null || name.trim().isEmpty()) {
-            log.debug("Search called with empty name parameter, returning all users");
-            return User.listAll();
+    @Compressed
+    @Timed(value = TIMER, extraTags = {"operation", "searchUsersByName"}, histogram = true)
+    @RateLimited(Group.EXPENSIVE)
+    public Response searchUsersByName(@QueryParam("name") String name, @QueryParam("limit") Integer limit,
+                                      @QueryParam("fields") String fields, @Context Request request) {
+        EntityTag tag = changeTracker.tag();
+        Response notModified = notModified(request, tag);
+        if (notModified != null) {
+            return notModified;
+        }
+
+        List<String> selected;
+        try {
+            selected = fields == null ? null : UserProjections.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return unknownField();
+        }
+
+        if (name == null || name.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"Name is required\"}")
+                    .build();
         }
 
-        log.infof("Searching users with name containing: '%s'", name.trim());
-        List<User> results = User.findByName(name);
+        if (!validLimit(limit)) {
+            return invalidLimit();
+        }
 
-        if (results.isEmpty()) {
-            log.infof("No users found for search term: '%s'", name.trim());
+        List<?> results;
+        int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (searchIndex.isReady()) {
+            List<Long> ids = searchIndex.search(name, maxResults);
+            results = selected == null ? User.findByIds(ids) : projections.byIds(selected, ids);
         } else {
-            log.infof("Found %d users matching search term: '%s'", results.size(), name.trim());
+            results = selected == null
+                    ? User.findByName(name, maxResults)
+                    : projections.byName(selected, name, maxResults);
         }
+        searchSizes.record(results.size());
+        return Response.ok(listBody(results, selected)).tag(tag).cacheControl(REVALIDATE).build();
+    }
 
-        return results;
+    @GET
+    @Path("/export")
+    @Compressed
+    @Produces(UserExporter.NDJSON)
+    @Timed(value = TIMER, extraTags = {"operation", "exportUsers"}, histogram = true)
+    @RateLimited(Group.EXPENSIVE)
+    public Response exportUsers() {
+        StreamingOutput stream = output -> {
+            long count = exporter.exportTo(output);
+            log.infof("Exported %d users", count);
+        };
+        return Response.ok(stream).build();
     }
 
     @GET
     @Path("/email/{email}")
-    public Response getUserByEmail(@PathParam("email") String email) {
-        log.infof("Fetching user by email: %s", email);
-        User user = User.findByEmail(email);
+    @Uncompressed
+    @Timed(value = TIMER, extraTags = {"operation", "getUserByEmail"}, histogram = true)
+    @RateLimited(Group.READ)
+    public Response getUserByEmail(@PathParam("email") String email, @Context Request request) {
+        User user = userCache.findByEmail(email);
         if (user == null) {
-            log.warnf("User not found with email: %s", email);
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("{\"error\": \"User not found\"}")
                     .build();
         }
-        log.debugf("Successfully found user: %s (email: %s)", user.name, email);
-        return Response.ok(user).build();
+        return conditionalOk(request, user);
     }
 
     @POST
-    @Transactional
-    public Response createUser(@Valid User user) {
-        log.infof("Creating new user with email: %s", user.email);
-
-        // Check if email already exists
-        User existing = User.findByEmail(user.email);
-        if (existing != null) {
-            log.warnf("Attempt to create user with existing email: %s", user.email);
-            return Response.status(Response.Status.CONFLICT)
-                    .entity("{\"error\": \"Email already exists\"}")
+    @Timed(value = TIMER, extraTags = {"operation", "createUser"}, histogram = true)
+    @RateLimited(Group.WRITE)
+    public Response createUser(@Valid User user, @QueryParam("async") boolean async, @Context UriInfo uriInfo) {
+        if (async) {
+            return submitUser(user, uriInfo);
+        }
+
+        // Only the synchronous path needs a transaction. A duplicate email fails the flush on
+        // uk_users_email and is mapped to 409.
+        QuarkusTransaction.requiringNew().run(user::persistAndFlush);
+        return Response.status(Response.Status.CREATED).entity(user).tag(userTag(user)).build();
+    }
+
+    // Queues the user for the ingest writer, which creates it in its own transaction
+    private Response submitUser(User user, UriInfo uriInfo) {
+        String trackingId = ingestQueue.submit(user);
+        if (trackingId == null) {
+            return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, 1)
+                    .entity("{\"error\": \"Too many pending users, retry later\"}")
                     .build();
         }
+        return Response.accepted(IngestStatus.queued(trackingId))
+                .location(uriInfo.getBaseUriBuilder().path(UserResource.class).path("ingest").path(trackingId).build())
+                .build();
+    }
 
-        user.persist();
-        log.infof("Successfully created user: %s (ID: %d, email: %s)",
-                user.name, user.id, user.email);
-        return Response.status(Response.Status.CREATED).entity(user).build();
+    @GET
+    @Path("/ingest/{trackingId}")
+    @NonBlocking
+    @Uncompressed
+    @RateLimited(Group.READ)
+    public Response getIngestStatus(@PathParam("trackingId") String trackingId) {
+        IngestStatus status = ingestQueue.status(trackingId);
+        if (status == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("{\"error\": \"Unknown tracking id\"}")
+                    .build();
+        }
+        return Response.ok(status).build();
     }
 
     @PUT
     @Path("/{id}")
     @Transactional
-    public Response updateUser(@PathParam("id") Long id, @Valid User updatedUser) {
-        log.infof("Updating user with ID: %d", id);
-
+    @Timed(value = TIMER, extraTags = {"operation", "updateUser"}, histogram = true)
+    @RateLimited(Group.WRITE)
+    public Response updateUser(@PathParam("id") Long id, @Valid User updatedUser, @Context Request request) {
         User user = User.findById(id);
         if (user == null) {
-            log.warnf("Attempt to update non-existent user ID: %d", id);
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("{\"error\": \"User not found\"}")
                     .build();
         }
+        Response failed = preconditionFailed(request, user);
+        if (failed != null) {
+            return failed;
+        }
 
-        log.debugf("Found existing user: %s (ID: %d)", user.name, id);
+        user.name = updatedUser.name;
+        user.address = updatedUser.address;
+        user.email = updatedUser.email;
+        user.telephone = updatedUser.telephone;
 
-        // Check if email is being changed to an existing one
-        if (!user.email.equals(updatedUser.email)) {
-            log.debugf("Email change requested from %s to %s", user.email, updatedUser.email);
-            User emailCheck = User.findByEmail(updatedUser.email);
-            if (emailCheck != null) {
-                log.warnf("Attempt to update user ID %d with existing email: %s", id, updatedUser.email);
-                return Response.status(Response.Status.CONFLICT)
-                        .entity("{\"error\": \"Email already exists\"}")
+        // Flush here so a duplicate email surfaces as a 409 instead of failing the commit. The UPDATE
+        // is guarded by the version read above, so a write racing with this one fails it with a 412.
+        User.flush();
+        return Response.ok(user).tag(userTag(user)).build();
+    }
+
+    // JSON Merge Patch: only the supplied fields are validated and written, in one UPDATE
+    // without loading the user first
+    @PATCH
+    @Path("/{id}")
+    @Consumes({MERGE_PATCH_JSON, MediaType.APPLICATION_JSON})
+    @Transactional
+    @Timed(value = TIMER, extraTags = {"operation", "patchUser"}, histogram = true)
+    @RateLimited(Group.WRITE)
+    public Response patchUser(@PathParam("id") Long id, Map<String, Object> patch,
+                              @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        if (patch == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"Patch must be a JSON object\"}")
+                    .build();
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            String invalid = validatePatchField(entry.getKey(), entry.getValue());
+            if (invalid != null) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("{\"error\": \"" + invalid + "\"}")
                         .build();
             }
+            fields.put(entry.getKey(), (String) entry.getValue());
         }
 
-        // Log the changes
-        log.debugf("Updating user fields - Name: '%s' -> '%s', Email: '%s' -> '%s', Address: '%s' -> '%s', Phone: '%s' -> '%s'",
-                user.name, updatedUser.name,
-                user.email, updatedUser.email,
-                user.address, updatedUser.address,
-                user.telephone, updatedUser.telephone);
+        Long expectedVersion = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            expectedVersion = matchedVersion(id, ifMatch);
+            if (expectedVersion == null) {
+                return userModified();
+            }
+        }
 
-        user.name = updatedUser.name;
-        user.address = updatedUser.address;
-        user.email = updatedUser.email;
-        user.telephone = updatedUser.telephone;
+        if (fields.isEmpty()) {
+            // Nothing to write; still answer as if the update had been attempted
+            User user = User.findById(id);
+            if (user == null) {
+                return userNotFound();
+            }
+            if (expectedVersion != null && expectedVersion != user.version) {
+                return userModified();
+            }
+            return Response.noContent().tag(userTag(user)).build();
+        }
+
+        // A duplicate email fails the UPDATE on uk_users_email and is mapped to 409
+        if (User.patch(id, fields, expectedVersion) == 0) {
+            return User.count("id", id) == 0 ? userNotFound() : userModified();
+        }
+
+        // Bulk updates skip the entity listener, so tell the cache, index and counters directly
+        UserEventListener.fire(new UserEvent(UserEvent.Type.UPDATED, id, fields.get("name"), fields.get("email"), null));
+
+        Response.ResponseBuilder patched = Response.noContent();
+        if (expectedVersion != null) {
+            patched.tag(new EntityTag(id + "-" + (expectedVersion + 1)));
+        }
+        return patched.build();
+    }
+
+    private String validatePatchField(String field, Object value) {
+        if (!User.PATCHABLE_FIELDS.contains(field)) {
+            return "Field " + field + " cannot be patched";
+        }
+        if (value != null && !(value instanceof String)) {
+            return "Field " + field + " must be a string";
+        }
+        // All patchable fields are required, so removing one (null) fails validation too
+        Set<ConstraintViolation<User>> violations = validator.validateValue(User.class, field, value);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // Version named by a strong If-Match tag of this user, or null when the tag is for anything else
+    private static Long matchedVersion(Long id, String ifMatch) {
+        try {
+            EntityTag tag = EntityTag.valueOf(ifMatch.trim());
+            String prefix = id + "-";
+            if (!tag.isWeak() && tag.getValue().startsWith(prefix)) {
+                return Long.parseLong(tag.getValue().substring(prefix.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a single well-formed tag, which cannot match either
+        }
+        return null;
+    }
+
+    private static Response userNotFound() {
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity("{\"error\": \"User not found\"}")
+                .build();
+    }
 
-        log.infof("Successfully updated user: %s (ID: %d)", user.name, id);
-        return Response.ok(user).build();
+    private static Response userModified() {
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity("{\"error\": \"User has been modified\"}")
+                .build();
     }
 
     @DELETE
     @Path("/{id}")
     @Transactional
-    public Response deleteUser(@PathParam("id") Long id) {
-        log.infof("Deleting user with ID: %d", id);
-
+    @Timed(value = TIMER, extraTags = {"operation", "deleteUser"}, histogram = true)
+    @RateLimited(Group.WRITE)
+    public Response deleteUser(@PathParam("id") Long id, @Context Request request) {
         User user = User.findById(id);
         if (user == null) {
-            log.warnf("Attempt to delete non-existent user ID: %d", id);
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("{\"error\": \"User not found\"}")
                     .build();
         }
+        Response failed = preconditionFailed(request, user);
+        if (failed != null) {
+            return failed;
+        }
 
-        String userName = user.name; // Store name before deletion for logging
         user.delete();
-        log.infof("Successfully deleted user: %s (ID: %d)", userName, id);
+        User.flush();
         return Response.status(Response.Status.NO_CONTENT).build();
     }
 
+    @POST
+    @Path("/batch")
+    @Timed(value = TIMER, extraTags = {"operation", "createUsers"}, histogram = true)
+    @RateLimited(Group.BATCH)
+    public Response createUsers(List<User> users) {
+        Response invalid = checkBatchSize(users);
+        if (invalid != null) {
+            return invalid;
+        }
+        if (log.isDebugEnabled()) {
+            log.debugf("Creating batch of %d users", users.size());
+        }
+        List<BatchResult> results = batchService.createAll(users);
+        return Response.ok(results).build();
+    }
+
+    @PUT
+    @Path("/batch")
+    @Timed(value = TIMER, extraTags = {"operation", "updateUsers"}, histogram = true)
+    @RateLimited(Group.BATCH)
+    public Response updateUsers(List<User> users) {
+        Response invalid = checkBatchSize(users);
+        if (invalid != null) {
+            return invalid;
+        }
+        if (log.isDebugEnabled()) {
+            log.debugf("Updating batch of %d users", users.size());
+        }
+        List<BatchResult> results = batchService.updateAll(users);
+        return Response.ok(results).build();
+    }
+
+    @DELETE
+    @Path("/batch")
+    @Timed(value = TIMER, extraTags = {"operation", "deleteUsers"}, histogram = true)
+    @RateLimited(Group.BATCH)
+    public Response deleteUsers(List<Long> ids) {
+        Response invalid = checkBatchSize(ids);
+        if (invalid != null) {
+            return invalid;
+        }
+        if (log.isDebugEnabled()) {
+            log.debugf("Deleting batch of %d users", ids.size());
+        }
+        List<BatchResult> results = batchService.deleteAll(ids);
+        return Response.ok(results).build();
+    }
+
+    private Response checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"Batch must not be empty\"}")
+                    .build();
+        }
+        if (items.size() > UserBatchService.MAX_BATCH_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"Batch exceeds " + UserBatchService.MAX_BATCH_SIZE + " items\"}")
+                    .build();
+        }
+        return null;
+    }
+
+    static EntityTag userTag(User user) {
+        return new EntityTag(user.id + "-" + user.version);
+    }
+
+    private static Response conditionalOk(Request request, User user) {
+        EntityTag tag = userTag(user);
+        Response notModified = notModified(request, tag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return Response.ok(user).tag(tag).cacheControl(REVALIDATE).build();
+    }
+
+    // 304 when If-None-Match still matches the current tag
+    private static Response notModified(Request request, EntityTag tag) {
+        Response.ResponseBuilder unchanged = request.evaluatePreconditions(tag);
+        return unchanged == null ? null : unchanged.tag(tag).cacheControl(REVALIDATE).build();
+    }
+
+    // 412 when If-Match names a version other than the one just loaded
+    private static Response preconditionFailed(Request request, User user) {
+        if (request.evaluatePreconditions(userTag(user)) == null) {
+            return null;
+        }
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity("{\"error\": \"User has been modified\"}")
+                .tag(userTag(user))
+                .build();
+    }
+
+    private static CacheControl revalidate() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        cacheControl.setNoTransform(false);
+        return cacheControl;
+    }
+
+    // Endpoints below only read in-memory state, so they run on the event loop
+    @GET
+    @Path("/cache/stats")
+    @NonBlocking
+    @Uncompressed
+    @RateLimited(Group.READ)
+    public Map<String, CacheStats> getCacheStats() {
+        return userCache.stats();
+    }
+
     @GET
     @Path("/count")
-    public Response getUserCount() {
-        log.debug("Fetching total user count");
-        long count = User.count();
-        log.debugf("Total user count: %d", count);
-        return Response.ok("{\"count\": " + count + "}").build();
+    @NonBlocking
+    @Uncompressed
+    @Timed(value = TIMER, extraTags = {"operation", "getUserCount"}, histogram = true)
+    @RateLimited(Group.READ)
+    public Response getUserCount(@Context Request request) {
+        EntityTag tag = changeTracker.tag();
+        Response notModified = notModified(request, tag);
+        if (notModified != null) {
+            return notModified;
+        }
+        return Response.ok(userCounter.toJson()).tag(tag).cacheControl(REVALIDATE).build();
+    }
+
+    // Server-sent events for every committed change, named created/updated/deleted (or reset).
+    // EventSource sends Last-Event-ID when it reconnects, which resumes the feed after that event.
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @NonBlocking
+    public Multi<OutboundSseEvent> streamChanges(@HeaderParam("Last-Event-ID") String lastEventId, @Context Sse sse) {
+        return changeFeed.subscribe(lastEventId)
+                .map(change -> sse.newEventBuilder()
+                        .id(changeFeed.eventId(change))
+                        .name(change.type())
+                        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                        .data(UserChange.class, change)
+                        .build());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.digg.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sampled, asynchronous access log. Request threads only bump counters and, for one in
+// `sample-rate` requests (and every 5xx), enqueue an entry; a single background thread
+// formats and writes the entries. Entries are dropped rather than blocking when the queue is full.
+@ApplicationScoped
+public class AccessLog {
+    private static final Logger log = Logger.getLogger("com.digg.access");
+
+    @ConfigProperty(name = "digg.access-log.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "digg.access-log.sample-rate", defaultValue = "100")
+    int sampleRate;
+
+    @ConfigProperty(name = "digg.access-log.queue-size", defaultValue = "4096")
+    int queueSize;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private BlockingQueue<Entry> queue;
+    private Thread writer;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueSize);
+        writer = Thread.ofPlatform().daemon().name("access-log").start(this::drain);
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.interrupt();
+    }
+
+    // Counts the request and tells the caller whether to build an entry for it
+    public boolean sample(int status) {
+        requests.increment();
+        if (status >= 500) {
+            serverErrors.increment();
+            return enabled;
+        }
+        return enabled && (sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    public void record(String method, String path, int status, long durationNanos) {
+        if (!queue.offer(new Entry(method, path, status, durationNanos))) {
+            dropped.increment();
+        }
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Entry entry = queue.take();
+                log.infof("method=%s path=%s status=%d duration_us=%d",
+                        entry.method(), entry.path(), entry.status(), entry.durationNanos() / 1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Entry(String method, String path, int status, long durationNanos) {}
+}
@@ -1,21 +1,52 @@
 package com.digg.service;
 
 import com.digg.entity.User;
+import io.agroal.api.AgroalDataSource;
 import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
-import jakarta.transaction.Transactional;
-import java.util.Arrays;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-
-// Generates users
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Generates users. Rows are split into fixed chunks that are inserted in parallel with
+// batched JDBC statements; each chunk has its own SplittableRandom split off the seed in
+// chunk order, so the generated data only depends on digg.seed.count and digg.seed.seed.
 @ApplicationScoped
 public class DataInitializer {
 
-    private final Random random = new Random();
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String INSERT =
+            "INSERT INTO users (id, version, name, address, email, telephone) VALUES (?, 0, ?, ?, ?, ?)";
+
+    @ConfigProperty(name = "digg.seed.count", defaultValue = "100")
+    int seedCount;
+
+    @ConfigProperty(name = "digg.seed.seed", defaultValue = "42")
+    long seed;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    StartupTimings timings;
 
-    private final List<String> firstNames = Arrays.asList(
+    private static final String[] FIRST_NAMES = {
             "Alice", "Bob", "Carol", "David", "Emma", "Frank", "Grace", "Henry",
             "Ivy", "Jack", "Kate", "Liam", "Mia", "Noah", "Olivia", "Paul",
             "Quinn", "Ruby", "Sam", "Tina", "Uma", "Victor", "Wendy", "Xavier",
@@ -23,98 +54,180 @@ public class DataInitializer {
             "George", "Hannah", "Ian", "Julia", "Kevin", "Luna", "Mark", "Nina",
             "Oscar", "Penny", "Quincy", "Rose", "Steve", "Tara", "Ulrich", "Vera",
             "Will", "Xara", "Yale", "Zara"
-    );
+    };
 
-    private final List<String> lastNames = Arrays.asList(
+    private static final String[] LAST_NAMES = {
             "Anderson", "Brown", "Clark", "Davis", "Evans", "Fisher", "Garcia", "Harris",
             "Johnson", "King", "Lee", "Martinez", "Nelson", "O'Connor", "Parker", "Quinn",
             "Robinson", "Smith", "Taylor", "Underwood", "Vance", "Wilson", "Young", "Zhang",
             "Adams", "Baker", "Cooper", "Duncan", "Edwards", "Foster", "Green", "Hall",
             "Irving", "Jones", "Kelly", "Lopez", "Moore", "Nash", "Owen", "Phillips",
             "Reed", "Sullivan", "Thompson", "Vaughn", "White", "Cross", "Bell", "Stone"
-    );
+    };
 
-    private final List<String> streets = Arrays.asList(
+    private static final String[] STREETS = {
             "Main St", "Oak Ave", "Pine Rd", "Cedar Ln", "Elm Dr", "Maple Way",
             "First St", "Second Ave", "Park Blvd", "River Rd", "Hill St", "Valley Dr",
             "Sunset Ave", "Spring St", "Garden Ln", "Forest Dr", "Lake Ave", "Beach Rd"
-    );
+    };
 
-    private final List<String> cities = Arrays.asList(
+    private static final String[] CITIES = {
             "Springfield", "Riverside", "Franklin", "Georgetown", "Arlington", "Fairview",
             "Clinton", "Madison", "Washington", "Jackson", "Lincoln", "Jefferson",
             "Hamilton", "Monroe", "Adams", "Wilson", "Taylor", "Brown"
-    );
+    };
+
+    private static final String[] STATES = {
+            "AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", "FL", "GA",
+            "HI", "ID", "IL", "IN", "IA", "KS", "KY", "LA", "ME", "MD",
+            "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH", "NJ",
+            "NM", "NY", "NC", "ND", "OH", "OK", "OR", "PA", "RI", "SC",
+            "SD", "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY"
+    };
+
+    private static final String[] DOMAINS = {"@gmail.com", "@yahoo.com", "@outlook.com", "@example.com"};
+
+    // Pre-built pieces so rows are assembled by concatenation only
+    private static final String[] FIRST_LOWER = lowerCase(FIRST_NAMES);
+    private static final String[] LAST_LOWER = lowerCase(LAST_NAMES);
+    private static final String[] STREET_CITY = new String[STREETS.length * CITIES.length];
+
+    static {
+        for (int s = 0; s < STREETS.length; s++) {
+            for (int c = 0; c < CITIES.length; c++) {
+                STREET_CITY[s * CITIES.length + c] = " " + STREETS[s] + ", " + CITIES[c] + ", ";
+            }
+        }
+    }
+
+    void onStart(@Observes StartupEvent ev) throws Exception {
+        long start = System.nanoTime();
+        seed();
+        timings.record("seed", start);
+    }
 
-    @Transactional
-    void onStart(@Observes StartupEvent ev) {
+    private void seed() throws Exception {
         // Check if users already exist to avoid duplicates on restart
-        if (User.count() > 0) {
+        if (countUsers() > 0) {
             System.out.println("Users already exist, skipping data initialization");
             return;
         }
+        if (seedCount <= 0) {
+            return;
+        }
 
-        System.out.println("Generating 50 sample users...");
+        System.out.println("Generating " + seedCount + " sample users...");
+        long start = System.nanoTime();
+
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int first = 1; first <= seedCount; first += CHUNK_SIZE) {
+            int from = first;
+            int to = Math.min(first + CHUNK_SIZE - 1, seedCount);
+            SplittableRandom random = root.split();
+            chunks.add(() -> {
+                insertChunk(from, to, random);
+                return null;
+            });
+        }
 
-        for (int i = 1; i <= 100; i++) {
-            String firstName = getRandomElement(firstNames);
-            String lastName = getRandomElement(lastNames);
-            String name = firstName + " " + lastName;
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), chunks.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> chunk : executor.invokeAll(chunks)) {
+                chunk.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        restartIdSequence();
 
-            String address = generateAddress();
-            String email = generateEmail(firstName, lastName, i);
-            String telephone = generateTelephone();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "Successfully created %d sample users in %.2fs (%.0f rows/s, %d threads)%n",
+                seedCount, seconds, seedCount / seconds, threads);
+    }
 
-            User user = new User(name, address, email, telephone);
-            user.persist();
+    private void insertChunk(int from, int to, SplittableRandom random) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            connection.setAutoCommit(false);
+            for (int i = from; i <= to; i++) {
+                int first = random.nextInt(FIRST_NAMES.length);
+                int last = random.nextInt(LAST_NAMES.length);
+
+                insert.setLong(1, i);
+                insert.setString(2, FIRST_NAMES[first] + " " + LAST_NAMES[last]);
+                insert.setString(3, generateAddress(random));
+                insert.setString(4, generateEmail(random, first, last, i));
+                insert.setString(5, generateTelephone(random));
+                insert.addBatch();
+
+                if ((i - from + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
         }
+    }
 
-        System.out.println("Successfully created 50 sample users!");
+    // Move the id sequence past the explicit ids; Hibernate's pooled optimizer hands out
+    // the block below each sequence value, so leave a full allocation of headroom
+    private void restartIdSequence() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE users_SEQ RESTART WITH " + ((long) seedCount + User.ID_ALLOCATION_SIZE));
+        }
     }
 
-    private String generateAddress() {
+    private long countUsers() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+            count.next();
+            return count.getLong(1);
+        }
+    }
+
+    private static String generateAddress(SplittableRandom random) {
         int streetNumber = 100 + random.nextInt(9900); // 100-9999
-        String street = getRandomElement(streets);
-        String city = getRandomElement(cities);
-        String state = generateState();
-        String zipCode = String.format("%05d", 10000 + random.nextInt(90000));
+        String streetCity = STREET_CITY[random.nextInt(STREET_CITY.length)];
+        String state = STATES[random.nextInt(STATES.length)];
+        int zipCode = 10000 + random.nextInt(90000);   // always five digits
 
-        return streetNumber + " " + street + ", " + city + ", " + state + " " + zipCode;
+        return streetNumber + streetCity + state + " " + zipCode;
     }
 
-    private String generateEmail(String firstName, String lastName, int index) {
-        List<String> domains = Arrays.asList("@gmail.com", "@yahoo.com", "@outlook.com", "@example.com");
-        String domain = getRandomElement(domains);
+    private static String generateEmail(SplittableRandom random, int first, int last, int index) {
+        String domain = DOMAINS[random.nextInt(DOMAINS.length)];
 
-        // Mix of email formats to make it realistic
+        // Mix of email formats to make it realistic; the index keeps every address unique
         switch (random.nextInt(3)) {
-            case 0: return firstName.toLowerCase() + "." + lastName.toLowerCase() + domain;
-            case 1: return firstName.toLowerCase() + lastName.toLowerCase() + index + domain;
-            default: return firstName.toLowerCase().charAt(0) + lastName.toLowerCase() + domain;
+            case 0: return FIRST_LOWER[first] + "." + LAST_LOWER[last] + index + domain;
+            case 1: return FIRST_LOWER[first] + LAST_LOWER[last] + index + domain;
+            default: return FIRST_LOWER[first].charAt(0) + LAST_LOWER[last] + index + domain;
         }
     }
 
-    private String generateTelephone() {
+    private static String generateTelephone(SplittableRandom random) {
         // Generate US phone number format: (XXX) XXX-XXXX
         int areaCode = 200 + random.nextInt(700); // 200-899
         int exchange = 200 + random.nextInt(700); // 200-899
         int number = random.nextInt(10000);       // 0000-9999
 
-        return String.format("(%03d) %03d-%04d", areaCode, exchange, number);
+        StringBuilder phone = new StringBuilder(14)
+                .append('(').append(areaCode).append(") ").append(exchange).append('-');
+        if (number < 1000) phone.append('0');
+        if (number < 100) phone.append('0');
+        if (number < 10) phone.append('0');
+        return phone.append(number).toString();
     }
 
-    private String generateState() {
-        List<String> states = Arrays.asList(
-                "AL", "AK", "AZ", "AR", "CA", "CO", "CT", "DE", "FL", "GA",
-                "HI", "ID", "IL", "IN", "IA", "KS", "KY", "LA", "ME", "MD",
-                "MA", "MI", "MN", "MS", "MO", "MT", "NE", "NV", "NH", "NJ",
-                "NM", "NY", "NC", "ND", "OH", "OK", "OR", "PA", "RI", "SC",
-                "SD", "TN", "TX", "UT", "VT", "VA", "WA", "WV", "WI", "WY"
-        );
-        return getRandomElement(states);
-    }
-
-    private <T> T getRandomElement(List<T> list) {
-        return list.get(random.nextInt(list.size()));
+    private static String[] lowerCase(String[] values) {
+        String[] lower = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            lower[i] = values[i].toLowerCase(Locale.ROOT);
+        }
+        return lower;
     }
-}
\ No newline at end of file
+}
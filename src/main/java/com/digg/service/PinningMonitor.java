@@ -0,0 +1,71 @@
+package com.digg.service;
+
+import io.quarkus.runtime.ImageMode;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Streams the JFR jdk.VirtualThreadPinned event and logs where a virtual thread stayed pinned
+// to its carrier (synchronized blocks or native frames in the JDBC/transaction stack)
+@ApplicationScoped
+public class PinningMonitor {
+    private static final Logger log = Logger.getLogger(PinningMonitor.class);
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    @ConfigProperty(name = "digg.virtual-threads.pinning-monitor.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "digg.virtual-threads.pinning-monitor.threshold", defaultValue = "20ms")
+    Duration threshold;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+    private RecordingStream stream;
+
+    void start(@Observes StartupEvent ev) {
+        if (!enabled) {
+            return;
+        }
+        if (ImageMode.current().isNativeImage()) {
+            // The native build leaves JFR out unless built with --enable-monitoring=jfr
+            log.info("Pinning monitor disabled in the native image");
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED, this::onPinned);
+        stream.startAsync();
+    }
+
+    void stop(@Observes ShutdownEvent ev) {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long pinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        String frames = event.getStackTrace() == null ? "" : event.getStackTrace().getFrames().stream()
+                .limit(12)
+                .map(PinningMonitor::describe)
+                .collect(Collectors.joining("\n\tat "));
+        log.warnf("Virtual thread pinned for %d ms\n\tat %s", event.getDuration().toMillis(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
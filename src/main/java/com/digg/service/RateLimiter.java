@@ -0,0 +1,144 @@
+package com.digg.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Admission control for the REST API. Every client gets a token bucket per endpoint, sized by
+// the endpoint's group; buckets use GCRA, i.e. a single "theoretical arrival time" per bucket
+// advanced with compare-and-set, so admitting a request takes no lock. EXPENSIVE endpoints
+// (full list, search, export) additionally share a fixed number of in-flight slots.
+@ApplicationScoped
+public class RateLimiter {
+
+    public enum Group { READ, EXPENSIVE, WRITE, BATCH }
+
+    // Idle buckets are full again long before this; dropping them only bounds memory
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(10);
+
+    @ConfigProperty(name = "digg.rate-limit.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "digg.rate-limit.max-clients", defaultValue = "100000")
+    long maxClients;
+
+    @ConfigProperty(name = "digg.rate-limit.read.rate", defaultValue = "500")
+    double readRate;
+
+    @ConfigProperty(name = "digg.rate-limit.read.burst", defaultValue = "1000")
+    int readBurst;
+
+    @ConfigProperty(name = "digg.rate-limit.expensive.rate", defaultValue = "50")
+    double expensiveRate;
+
+    @ConfigProperty(name = "digg.rate-limit.expensive.burst", defaultValue = "100")
+    int expensiveBurst;
+
+    @ConfigProperty(name = "digg.rate-limit.expensive.max-concurrent", defaultValue = "16")
+    int expensiveMaxConcurrent;
+
+    @ConfigProperty(name = "digg.rate-limit.write.rate", defaultValue = "200")
+    double writeRate;
+
+    @ConfigProperty(name = "digg.rate-limit.write.burst", defaultValue = "400")
+    int writeBurst;
+
+    @ConfigProperty(name = "digg.rate-limit.batch.rate", defaultValue = "10")
+    double batchRate;
+
+    @ConfigProperty(name = "digg.rate-limit.batch.burst", defaultValue = "20")
+    int batchBurst;
+
+    private final Map<Group, Limit> limits = new EnumMap<>(Group.class);
+    private final Map<Group, LongAdder> rateRejected = new EnumMap<>(Group.class);
+    private final LongAdder concurrencyRejected = new LongAdder();
+
+    private Cache<Key, AtomicLong> buckets;
+    private Semaphore expensiveSlots;
+
+    @PostConstruct
+    void init() {
+        limits.put(Group.READ, Limit.of(readRate, readBurst));
+        limits.put(Group.EXPENSIVE, Limit.of(expensiveRate, expensiveBurst));
+        limits.put(Group.WRITE, Limit.of(writeRate, writeBurst));
+        limits.put(Group.BATCH, Limit.of(batchRate, batchBurst));
+        for (Group group : Group.values()) {
+            rateRejected.put(group, new LongAdder());
+        }
+        buckets = Caffeine.newBuilder().maximumSize(maxClients).expireAfterAccess(IDLE_EXPIRY).build();
+        expensiveSlots = new Semaphore(Math.max(1, expensiveMaxConcurrent));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 0 when the client may call the endpoint now, otherwise the nanoseconds until it may
+    public long admit(Group group, String client, String endpoint) {
+        Limit limit = limits.get(group);
+        if (limit == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        AtomicLong arrival = buckets.get(new Key(client, endpoint), key -> new AtomicLong(now));
+        while (true) {
+            long previous = arrival.get();
+            long next = Math.max(previous, now) + limit.interval();
+            long wait = next - now - limit.tolerance();
+            if (wait > 0) {
+                rateRejected.get(group).increment();
+                return wait;
+            }
+            if (arrival.compareAndSet(previous, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Takes one of the shared slots of the EXPENSIVE group; pair a true result with release()
+    public boolean tryEnter() {
+        if (expensiveSlots.tryAcquire()) {
+            return true;
+        }
+        concurrencyRejected.increment();
+        return false;
+    }
+
+    public void release() {
+        expensiveSlots.release();
+    }
+
+    public long rateRejected(Group group) {
+        return rateRejected.get(group).sum();
+    }
+
+    public long concurrencyRejected() {
+        return concurrencyRejected.sum();
+    }
+
+    public int expensiveInFlight() {
+        return Math.max(1, expensiveMaxConcurrent) - expensiveSlots.availablePermits();
+    }
+
+    private record Key(String client, String endpoint) {}
+
+    // GCRA parameters: one request per interval, up to burst requests back to back
+    private record Limit(long interval, long tolerance) {
+        static Limit of(double rate, int burst) {
+            if (rate <= 0) {
+                return null;
+            }
+            long interval = Math.max(1, Math.round(1e9 / rate));
+            return new Limit(interval, interval * Math.max(1, burst));
+        }
+    }
+}
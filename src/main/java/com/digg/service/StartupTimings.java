@@ -0,0 +1,44 @@
+package com.digg.service;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.jboss.logging.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Collects how long each startup phase took and logs one line once every startup observer has
+// run, so restart times can be compared across database sizes.
+@ApplicationScoped
+public class StartupTimings {
+
+    @Inject
+    Logger log;
+
+    @Inject
+    UserCounter userCounter;
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    // Records a phase that started at the given System.nanoTime() and has just finished
+    public synchronized void record(String phase, long startNanos) {
+        phases.put(phase, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    void report(@Observes @Priority(Interceptor.Priority.APPLICATION + 2000) StartupEvent ev) {
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        String details;
+        synchronized (this) {
+            details = phases.entrySet().stream()
+                    .map(phase -> phase.getKey() + " " + phase.getValue() + " ms")
+                    .collect(Collectors.joining(", "));
+        }
+        log.infof("Ready %d ms after JVM start with %d users (%s)", sinceJvmStart, userCounter.get(), details);
+    }
+}
@@ -0,0 +1,237 @@
+package com.digg.service;
+
+import com.digg.dto.BatchResult;
+import com.digg.entity.User;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.core.Response.Status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Creates, updates and deletes many users in one transaction. Rows are written in
+// chunks matching the JDBC batch size so each chunk is one batched statement per table.
+@ApplicationScoped
+public class UserBatchService {
+
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    // Keep in sync with quarkus.hibernate-orm.jdbc.statement-batch-size
+    static final int CHUNK_SIZE = 100;
+
+    @Inject
+    Validator validator;
+
+    // Also called from the ingest writer thread, which has no request context of its own
+    @ActivateRequestContext
+    @Transactional
+    public List<BatchResult> createAll(List<User> users) {
+        BatchResult[] results = new BatchResult[users.size()];
+        Map<String, Integer> byEmail = new HashMap<>();
+
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String invalid = validate(user);
+            if (invalid != null) {
+                results[i] = BatchResult.failed(i, null, Status.BAD_REQUEST, invalid);
+            } else if (byEmail.putIfAbsent(user.email, i) != null) {
+                results[i] = BatchResult.failed(i, null, Status.CONFLICT, "Email already exists");
+            }
+        }
+
+        // One lookup for the whole batch instead of a pre-check per user
+        for (String taken : existingEmails(byEmail.keySet()).keySet()) {
+            int i = byEmail.remove(taken);
+            results[i] = BatchResult.failed(i, null, Status.CONFLICT, "Email already exists");
+        }
+
+        EntityManager em = User.getEntityManager();
+        List<Integer> pending = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < users.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            User user = users.get(i);
+            user.id = null;
+            em.persist(user);
+            pending.add(i);
+            if (pending.size() == CHUNK_SIZE) {
+                flush(em, users, pending, results, Status.CREATED);
+            }
+        }
+        flush(em, users, pending, results, Status.CREATED);
+        return Arrays.asList(results);
+    }
+
+    @Transactional
+    public List<BatchResult> updateAll(List<User> updates) {
+        BatchResult[] results = new BatchResult[updates.size()];
+        Map<Long, Integer> byId = new HashMap<>();
+        Map<String, Integer> byEmail = new HashMap<>();
+
+        for (int i = 0; i < updates.size(); i++) {
+            User update = updates.get(i);
+            String invalid = update == null || update.id == null ? "Id is required" : validate(update);
+            if (invalid != null) {
+                results[i] = BatchResult.failed(i, update == null ? null : update.id, Status.BAD_REQUEST, invalid);
+            } else if (byId.putIfAbsent(update.id, i) != null) {
+                results[i] = BatchResult.failed(i, update.id, Status.CONFLICT, "Duplicate id in batch");
+            } else if (byEmail.putIfAbsent(update.email, i) != null) {
+                byId.remove(update.id);
+                results[i] = BatchResult.failed(i, update.id, Status.CONFLICT, "Email already exists");
+            }
+        }
+
+        // An email may only move to a user if its current owner is updated in this batch too;
+        // moves maps each such owner to the id of the user taking its email
+        Map<Long, Long> moves = new HashMap<>();
+        existingEmails(byEmail.keySet()).forEach((email, ownerId) -> {
+            Long takerId = updates.get(byEmail.get(email)).id;
+            if (!ownerId.equals(takerId)) {
+                moves.put(ownerId, takerId);
+            }
+        });
+        // Rejecting a taker can strand an email it was giving up, so repeat until nothing changes
+        boolean rejected;
+        do {
+            rejected = false;
+            for (Iterator<Map.Entry<Long, Long>> it = moves.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Long, Long> move = it.next();
+                if (byId.containsKey(move.getKey())) {
+                    continue;
+                }
+                Integer i = byId.remove(move.getValue());
+                if (i != null) {
+                    results[i] = BatchResult.failed(i, move.getValue(), Status.CONFLICT, "Email already exists");
+                    rejected = true;
+                }
+                it.remove();
+            }
+        } while (rejected);
+
+        // Why two phases: uk_users_email is checked per statement and the UPDATEs of one flush run
+        // in id order, so in a swap (or any chain of moves) the first UPDATE would take an email
+        // its owner has not given up yet. So the emails being given away are parked on
+        // placeholders first and the updates below replace them.
+        // The park is a bulk statement, so it bumps the version itself: an If-Match write that
+        // read a row before this batch fails its version check instead of overwriting it. It
+        // fires no events because every parked row is a user of this batch, updated again below
+        // through the managed path in this transaction. Those updates fire the events that drop
+        // the cache and index entries of both the old and the new emails. The placeholders never
+        // commit.
+        EntityManager em = User.getEntityManager();
+        for (List<Long> chunk : chunks(moves.keySet())) {
+            em.createQuery("update User u set u.email = concat('~', cast(u.id as String)), u.version = u.version + 1"
+                            + " where u.id in :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+
+        for (List<Long> chunk : chunks(byId.keySet())) {
+            List<User> found = User.list("id in ?1", chunk);
+            List<Integer> pending = new ArrayList<>(found.size());
+            for (User user : found) {
+                int i = byId.remove(user.id);
+                User update = updates.get(i);
+                user.name = update.name;
+                user.address = update.address;
+                user.email = update.email;
+                user.telephone = update.telephone;
+                pending.add(i);
+            }
+            flush(em, updates, pending, results, Status.OK);
+        }
+
+        byId.forEach((id, i) -> results[i] = BatchResult.failed(i, id, Status.NOT_FOUND, "User not found"));
+        return Arrays.asList(results);
+    }
+
+    @Transactional
+    public List<BatchResult> deleteAll(List<Long> ids) {
+        BatchResult[] results = new BatchResult[ids.size()];
+        Map<Long, Integer> byId = new HashMap<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results[i] = BatchResult.failed(i, null, Status.BAD_REQUEST, "Id is required");
+            } else if (byId.putIfAbsent(id, i) != null) {
+                results[i] = BatchResult.failed(i, id, Status.CONFLICT, "Duplicate id in batch");
+            }
+        }
+
+        // Deleting loaded entities keeps the entity listeners firing; the DELETEs are still batched
+        EntityManager em = User.getEntityManager();
+        for (List<Long> chunk : chunks(byId.keySet())) {
+            List<User> found = User.list("id in ?1", chunk);
+            for (User user : found) {
+                int i = byId.remove(user.id);
+                em.remove(user);
+                results[i] = BatchResult.ok(i, user.id, Status.NO_CONTENT);
+            }
+            em.flush();
+            em.clear();
+        }
+
+        byId.forEach((id, i) -> results[i] = BatchResult.failed(i, id, Status.NOT_FOUND, "User not found"));
+        return Arrays.asList(results);
+    }
+
+    private String validate(User user) {
+        if (user == null) {
+            return "User is required";
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // Current owner id of each of the given emails that is already taken
+    private Map<String, Long> existingEmails(Set<String> emails) {
+        Map<String, Long> owners = new HashMap<>();
+        for (List<String> chunk : chunks(emails)) {
+            User.getEntityManager()
+                    .createQuery("select u.email, u.id from User u where u.email in :emails", Object[].class)
+                    .setParameter("emails", chunk)
+                    .getResultStream()
+                    .forEach(row -> owners.put((String) row[0], (Long) row[1]));
+        }
+        return owners;
+    }
+
+    private static void flush(EntityManager em, List<User> users, List<Integer> pending,
+                              BatchResult[] results, Status status) {
+        em.flush();
+        for (int i : pending) {
+            results[i] = BatchResult.ok(i, users.get(i).id, status);
+        }
+        pending.clear();
+        em.clear();
+    }
+
+    private static <T> List<List<T>> chunks(Set<T> values) {
+        List<T> all = new ArrayList<>(new HashSet<>(values));
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+}
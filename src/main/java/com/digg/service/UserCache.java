@@ -0,0 +1,117 @@
+package com.digg.service;
+
+import com.digg.dto.CacheStats;
+import com.digg.entity.User;
+import com.digg.entity.UserEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded read-through cache for user lookups by id and email.
+// Entries are invalidated after every committed update or delete of the user. Concurrent
+// misses for the same key share one database query.
+@ApplicationScoped
+public class UserCache {
+
+    @ConfigProperty(name = "digg.cache.users.max-size", defaultValue = "10000")
+    long maxSize;
+
+    @ConfigProperty(name = "digg.cache.users.ttl", defaultValue = "5M")
+    Duration ttl;
+
+    private Cache<Long, User> byId;
+    private Cache<String, Long> idByEmail;
+
+    private final SingleFlight<Long, User> idLoads = new SingleFlight<>();
+    private final SingleFlight<String, User> emailLoads = new SingleFlight<>();
+
+    // Bumped on every invalidation; a load that overlapped one is not cached, as it may have read stale data
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        idByEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    }
+
+    public User findById(long id) {
+        User user = byId.getIfPresent(id);
+        if (user != null) {
+            return user;
+        }
+        return idLoads.load(id, () -> loadById(id));
+    }
+
+    private User loadById(long id) {
+        long loadGeneration = generation.get();
+        User user = User.findById(id);
+        if (user != null && generation.get() == loadGeneration) {
+            byId.put(id, user);
+        }
+        return user;
+    }
+
+    public User findByEmail(String email) {
+        Long id = idByEmail.getIfPresent(email);
+        if (id != null) {
+            User user = findById(id);
+            if (user != null && email.equals(user.email)) {
+                return user;
+            }
+            // The email moved to another user or the user is gone
+            idByEmail.invalidate(email);
+        }
+        return emailLoads.load(email, () -> loadByEmail(email));
+    }
+
+    private User loadByEmail(String email) {
+        long loadGeneration = generation.get();
+        User user = User.findByEmail(email);
+        if (user != null && generation.get() == loadGeneration) {
+            idByEmail.put(email, user.id);
+            byId.put(user.id, user);
+        }
+        return user;
+    }
+
+    void onUserChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserEvent event) {
+        if (event.type() == UserEvent.Type.CREATED) {
+            return;
+        }
+        generation.incrementAndGet();
+        byId.invalidate(event.id());
+        idLoads.forget(event.id());
+        if (event.email() != null) {
+            idByEmail.invalidate(event.email());
+            emailLoads.forget(event.email());
+        }
+    }
+
+    Cache<Long, User> byIdCache() {
+        return byId;
+    }
+
+    Cache<String, Long> idByEmailCache() {
+        return idByEmail;
+    }
+
+    SingleFlight<Long, User> idLoads() {
+        return idLoads;
+    }
+
+    SingleFlight<String, User> emailLoads() {
+        return emailLoads;
+    }
+
+    public Map<String, CacheStats> stats() {
+        return Map.of("byId", CacheStats.of(byId), "byEmail", CacheStats.of(idByEmail));
+    }
+}
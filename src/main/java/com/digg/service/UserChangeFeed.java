@@ -0,0 +1,183 @@
+package com.digg.service;
+
+import com.digg.dto.UserChange;
+import com.digg.entity.UserEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Live feed of committed user changes behind GET /users/changes. Every change gets the next
+// sequence number and the last replay-size changes are kept, so a client reconnecting with
+// Last-Event-ID gets what it missed instead of reloading. Each subscriber has a bounded buffer;
+// one that falls behind is cut off (and can resume) rather than holding up the others.
+// Committing threads only enqueue their event; one dispatcher thread numbers, stores and fans
+// out the changes, so commits neither wait on each other nor on the subscribers. When that
+// queue is full the event is dropped and the gap published as a reset, so writers never block
+// and the queue never outgrows its bound.
+@ApplicationScoped
+public class UserChangeFeed {
+
+    @Inject
+    Logger log;
+
+    // Keep this above UserBatchService.MAX_BATCH_SIZE, or a client reconnecting after a full
+    // batch gets a reset instead of the batch
+    @ConfigProperty(name = "digg.changes.replay-size", defaultValue = "10000")
+    int replaySize;
+
+    @ConfigProperty(name = "digg.changes.buffer-size", defaultValue = "10000")
+    int bufferSize;
+
+    @ConfigProperty(name = "digg.changes.queue-size", defaultValue = "20000")
+    int queueSize;
+
+    // Event ids are "<epoch>-<seq>"; ids from before a restart name another sequence and force a reset
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<MultiEmitter<? super UserChange>> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+    private BlockingQueue<UserEvent> pending;
+
+    // Held by the dispatcher per change and by subscribe() while it replays and registers, so a
+    // subscriber sees every change exactly once and in sequence order. A ReentrantLock rather
+    // than synchronized keeps virtual threads in subscribe() unpinned.
+    private final ReentrantLock lock = new ReentrantLock();
+    private UserChange[] replay;
+    private long lastSeq;
+
+    private Thread dispatcher;
+
+    @PostConstruct
+    void init() {
+        if (replaySize <= UserBatchService.MAX_BATCH_SIZE) {
+            log.warnf("digg.changes.replay-size=%d does not cover a batch of %d changes",
+                    replaySize, UserBatchService.MAX_BATCH_SIZE);
+        }
+        replay = new UserChange[replaySize];
+        pending = new ArrayBlockingQueue<>(queueSize);
+        dispatcher = Thread.ofPlatform().daemon().name("user-change-feed").start(this::dispatch);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+    }
+
+    void onUserChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserEvent event) {
+        if (!pending.offer(event)) {
+            dropped.increment();
+            overflowed.set(true);
+        }
+    }
+
+    private void dispatch() {
+        List<UserEvent> queued = new ArrayList<>();
+        try {
+            while (true) {
+                publish(pending.take());
+                if (overflowed.getAndSet(false)) {
+                    // Every change committed before the dropped ones is still queued; publish those,
+                    // then the reset, so a subscriber that resumes after the reset has missed nothing
+                    pending.drainTo(queued);
+                    queued.forEach(this::publish);
+                    queued.clear();
+                    log.warnf("Change feed queue full, %d changes dropped so far; subscribers must reload", dropped.sum());
+                    publish(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A null event publishes a reset. It takes a sequence number and a replay slot of its own, so
+    // clients resuming from before the gap replay into it too.
+    private void publish(UserEvent event) {
+        lock.lock();
+        try {
+            long seq = ++lastSeq;
+            UserChange change = event != null ? UserChange.of(seq, event) : UserChange.reset(seq);
+            replay[(int) (change.seq() % replay.length)] = change;
+            for (MultiEmitter<? super UserChange> subscriber : subscribers) {
+                subscriber.emit(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Changes after lastEventId (if given) followed by live changes
+    public Multi<UserChange> subscribe(String lastEventId) {
+        return Multi.createFrom().<UserChange>emitter(emitter -> {
+                    emitter.onTermination(() -> subscribers.remove(emitter));
+                    lock.lock();
+                    try {
+                        catchUp(lastEventId).forEach(emitter::emit);
+                        subscribers.add(emitter);
+                    } finally {
+                        lock.unlock();
+                    }
+                }, BackPressureStrategy.IGNORE)
+                .onOverflow().buffer(bufferSize);
+    }
+
+    public String eventId(UserChange change) {
+        return epoch + "-" + change.seq();
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    // Caller holds the lock
+    private List<UserChange> catchUp(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        long after = seqOf(lastEventId.trim());
+        // More than fits the subscriber's buffer would overflow it straight away, so reload instead
+        if (after < 0 || after > lastSeq || lastSeq - after > Math.min(replay.length, bufferSize)) {
+            return List.of(UserChange.reset(lastSeq));
+        }
+        List<UserChange> missed = new ArrayList<>((int) (lastSeq - after));
+        for (long seq = after + 1; seq <= lastSeq; seq++) {
+            missed.add(replay[(int) (seq % replay.length)]);
+        }
+        return missed;
+    }
+
+    // Sequence number of one of our event ids, or -1 for anything else
+    private long seqOf(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.digg.service;
+
+import com.digg.entity.UserEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.ws.rs.core.EntityTag;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Global modification counter behind the collection ETag of list/search/count. Any committed
+// change bumps it; the startup epoch keeps tags from a previous run from matching.
+@ApplicationScoped
+public class UserChangeTracker {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    private volatile Tagged tagged = new Tagged(-1, null);
+
+    void onUserChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserEvent event) {
+        changes.incrementAndGet();
+    }
+
+    // Read before querying, so a change committed mid-request yields a stale tag, never a stale body
+    public EntityTag tag() {
+        long version = changes.get();
+        Tagged last = tagged;
+        if (last.version() != version) {
+            last = new Tagged(version, new EntityTag(epoch + "-" + version));
+            tagged = last;
+        }
+        return last.tag();
+    }
+
+    private record Tagged(long version, EntityTag tag) {}
+}
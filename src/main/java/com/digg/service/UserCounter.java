@@ -0,0 +1,97 @@
+package com.digg.service;
+
+import com.digg.entity.User;
+import com.digg.entity.UserEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Transactional;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory user count, seeded from the database on startup and adjusted by every
+// committed create/delete. A periodic reconciliation corrects drift that persists across two rounds.
+@ApplicationScoped
+public class UserCounter {
+
+    @Inject
+    Logger log;
+
+    @Inject
+    StartupTimings timings;
+
+    private final LongAdder count = new LongAdder();
+
+    // Number of applied changes, used to detect writes racing with a reconciliation
+    private final AtomicLong changes = new AtomicLong();
+
+    // Drift seen by the last reconciliation and not corrected yet; only touched by reconcile()
+    private long suspectedDrift;
+
+    private volatile Rendered rendered = new Rendered(-1, null);
+
+    @Transactional
+    void seed(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent ev) {
+        long start = System.nanoTime();
+        count.reset();
+        count.add(User.count());
+        timings.record("user count", start);
+    }
+
+    void onUserChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserEvent event) {
+        switch (event.type()) {
+            case CREATED -> count.increment();
+            case DELETED -> count.decrement();
+            default -> {
+                return;
+            }
+        }
+        changes.incrementAndGet();
+    }
+
+    @Scheduled(every = "${digg.count.reconcile-interval:5m}", delayed = "${digg.count.reconcile-interval:5m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void reconcile() {
+        long changesBefore = changes.get();
+        long actual = User.count();
+        if (changes.get() != changesBefore) {
+            // Writes committed while counting; try again next round
+            return;
+        }
+        // A transaction whose rows are committed but whose AFTER_SUCCESS observer has not run yet
+        // is already in COUNT(*), which looks like drift until the observer catches up. Real
+        // drift persists, so only correct what the previous round saw as well.
+        long drift = actual - count.sum();
+        if (drift != 0 && drift == suspectedDrift) {
+            log.warnf("User count drifted by %d, correcting to %d", drift, actual);
+            count.add(drift);
+            drift = 0;
+        }
+        suspectedDrift = drift;
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    // {"count": n}, re-rendered only when the count changed since the last call
+    public String toJson() {
+        long current = count.sum();
+        Rendered last = rendered;
+        if (last.count() != current) {
+            last = new Rendered(current, "{\"count\": " + current + "}");
+            rendered = last;
+        }
+        return last.json();
+    }
+
+    private record Rendered(long count, String json) {}
+}
@@ -0,0 +1,55 @@
+package com.digg.service;
+
+import com.digg.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Streams every user as newline-delimited JSON without materializing the table
+@ApplicationScoped
+public class UserExporter {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    // Rows pulled per JDBC round trip; the persistence context is cleared at the same interval
+    static final int FETCH_SIZE = 1000;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Transactional
+    @ActivateRequestContext
+    public long exportTo(OutputStream output) throws IOException {
+        Session session = User.getEntityManager().unwrap(Session.class);
+        long count = 0;
+
+        try (ScrollableResults<User> users = session
+                .createSelectionQuery("from User order by id", User.class)
+                .setReadOnly(true)
+                .setFetchSize(FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+             SequenceWriter writer = mapper.writerFor(User.class)
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .withRootValueSeparator("\n")
+                     .writeValues(output)) {
+
+            while (users.next()) {
+                writer.write(users.get());
+                if (++count % FETCH_SIZE == 0) {
+                    session.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
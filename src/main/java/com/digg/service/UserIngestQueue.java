@@ -0,0 +1,146 @@
+package com.digg.service;
+
+import com.digg.dto.BatchResult;
+import com.digg.dto.IngestStatus;
+import com.digg.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Reception;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind queue for POST /users?async=true. Requests only enqueue an already validated
+// user; a single writer thread takes whatever has queued up (up to batch-size) and creates it
+// in one transaction through UserBatchService, so bursts turn into a few large commits.
+// Submissions are refused when the queue is full, and the queue is drained on shutdown.
+@ApplicationScoped
+public class UserIngestQueue {
+
+    @Inject
+    Logger log;
+
+    @Inject
+    UserBatchService batchService;
+
+    @ConfigProperty(name = "digg.ingest.queue-size", defaultValue = "10000")
+    int queueSize;
+
+    @ConfigProperty(name = "digg.ingest.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "digg.ingest.status-ttl", defaultValue = "1H")
+    Duration statusTtl;
+
+    @ConfigProperty(name = "digg.ingest.shutdown-timeout", defaultValue = "30S")
+    Duration shutdownTimeout;
+
+    private final LongAdder rejected = new LongAdder();
+
+    private BlockingQueue<Pending> queue;
+    private Cache<String, IngestStatus> statuses;
+    private Thread writer;
+    private volatile boolean accepting = true;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueSize);
+        statuses = Caffeine.newBuilder().maximumSize(Math.max(queueSize, 100_000L)).expireAfterWrite(statusTtl).build();
+        writer = Thread.ofPlatform().daemon().name("user-ingest").start(this::drain);
+    }
+
+    void stop(@Observes(notifyObserver = Reception.IF_EXISTS) ShutdownEvent ev) throws InterruptedException {
+        accepting = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (!queue.isEmpty()) {
+            log.warnf("Shutting down with %d queued users not written", queue.size());
+        }
+    }
+
+    // Tracking id of the queued user, or null when the queue is full or shutting down
+    public String submit(User user) {
+        if (!accepting) {
+            rejected.increment();
+            return null;
+        }
+        String id = UUID.randomUUID().toString();
+        statuses.put(id, IngestStatus.queued(id));
+        if (!queue.offer(new Pending(id, user))) {
+            statuses.invalidate(id);
+            rejected.increment();
+            return null;
+        }
+        return id;
+    }
+
+    public IngestStatus status(String id) {
+        return statuses.getIfPresent(id);
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Everything that queued up while the previous batch was written goes into this one
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to write queued users", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<BatchResult> results;
+        try {
+            results = batchService.createAll(batch.stream().map(Pending::user).toList());
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // One row failing at commit (e.g. an email taken meanwhile) rolls back the whole
+                // batch; write the users one by one so only that one fails
+                batch.forEach(pending -> write(List.of(pending)));
+                return;
+            }
+            log.debugf(e, "Queued user %s failed", batch.get(0).id());
+            statuses.put(batch.get(0).id(), IngestStatus.failed(batch.get(0).id(), "Could not create user"));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String id = batch.get(i).id();
+            statuses.put(id, IngestStatus.of(id, results.get(i)));
+        }
+    }
+
+    private record Pending(String id, User user) {}
+}
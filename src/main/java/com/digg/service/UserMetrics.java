@@ -0,0 +1,121 @@
+package com.digg.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.hibernate.SessionFactory;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Publishes the in-memory state of the user services to the Micrometer registry (/q/metrics).
+// Per-endpoint timers live on UserResource; pool and Hibernate metrics come from the extensions.
+@Singleton
+public class UserMetrics implements MeterBinder {
+
+    @Inject
+    UserCache userCache;
+
+    @Inject
+    UserCounter userCounter;
+
+    @Inject
+    UserSearchIndex searchIndex;
+
+    @Inject
+    UserChangeFeed changeFeed;
+
+    @Inject
+    UserIngestQueue ingestQueue;
+
+    @Inject
+    RateLimiter rateLimiter;
+
+    @Inject
+    AccessLog accessLog;
+
+    @Inject
+    PinningMonitor pinningMonitor;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userCache.byIdCache(), "users-by-id");
+        CaffeineCacheMetrics.monitor(registry, userCache.idByEmailCache(), "users-by-email");
+        bindSingleFlight(registry, userCache.idLoads(), "id");
+        bindSingleFlight(registry, userCache.emailLoads(), "email");
+
+        Gauge.builder("users.count", userCounter, UserCounter::get)
+                .description("Users in the database, as tracked in memory")
+                .register(registry);
+        Gauge.builder("users.search.index.size", searchIndex, UserSearchIndex::size)
+                .description("Users in the name search index")
+                .register(registry);
+        Gauge.builder("users.ingest.queued", ingestQueue, UserIngestQueue::queued)
+                .description("Users waiting in the async create queue")
+                .register(registry);
+        FunctionCounter.builder("users.ingest.rejected", ingestQueue, UserIngestQueue::rejected)
+                .description("Async creates refused because the queue was full")
+                .register(registry);
+        Gauge.builder("users.changes.subscribers", changeFeed, UserChangeFeed::subscribers)
+                .description("Open /users/changes event streams")
+                .register(registry);
+        FunctionCounter.builder("users.changes.dropped", changeFeed, UserChangeFeed::dropped)
+                .description("Changes dropped (and replaced by a reset) because the feed queue was full")
+                .register(registry);
+
+        for (RateLimiter.Group group : RateLimiter.Group.values()) {
+            FunctionCounter.builder("users.rate-limit.rejected", rateLimiter, limiter -> limiter.rateRejected(group))
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("group", group.name().toLowerCase(Locale.ROOT))
+                    .tag("reason", "rate")
+                    .register(registry);
+        }
+        FunctionCounter.builder("users.rate-limit.rejected", rateLimiter, RateLimiter::concurrencyRejected)
+                .description("Requests refused with 429 by the rate limiter")
+                .tag("group", "expensive")
+                .tag("reason", "concurrency")
+                .register(registry);
+        Gauge.builder("users.rate-limit.expensive.in-flight", rateLimiter, RateLimiter::expensiveInFlight)
+                .description("List, search and export requests holding a concurrency slot")
+                .register(registry);
+
+        FunctionCounter.builder("users.access.requests", accessLog, AccessLog::requests)
+                .description("REST requests seen by the access log")
+                .register(registry);
+        FunctionCounter.builder("users.access.server-errors", accessLog, AccessLog::serverErrors)
+                .description("REST requests answered with a 5xx status, all of which are logged")
+                .register(registry);
+        FunctionCounter.builder("users.access.dropped", accessLog, AccessLog::dropped)
+                .description("Sampled access log entries dropped because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("users.virtual-threads.pinned", pinningMonitor, PinningMonitor::pinnedEvents)
+                .description("Virtual thread pinning events over the monitor threshold")
+                .register(registry);
+
+        // Hibernate's own binder reports counts; this adds the single slowest query seen so far
+        TimeGauge.builder("hibernate.query.slowest", sessionFactory,
+                        TimeUnit.MILLISECONDS, factory -> factory.getStatistics().getQueryExecutionMaxTime())
+                .description("Execution time of the slowest query since startup")
+                .register(registry);
+    }
+
+    // Coalescing ratio of cache-miss lookups: 1 - executions / calls
+    private static void bindSingleFlight(MeterRegistry registry, SingleFlight<?, ?> loads, String lookup) {
+        FunctionCounter.builder("users.lookups.calls", loads, SingleFlight::calls)
+                .description("Cache-miss lookups, including those that joined a load in flight")
+                .tag("lookup", lookup)
+                .register(registry);
+        FunctionCounter.builder("users.lookups.executions", loads, SingleFlight::executions)
+                .description("Cache-miss lookups that queried the database")
+                .tag("lookup", lookup)
+                .register(registry);
+    }
+}
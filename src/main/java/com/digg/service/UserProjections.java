@@ -0,0 +1,93 @@
+package com.digg.service;
+
+import com.digg.entity.User;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Reads only the requested user columns (the fields= query parameter) as scalar tuples, so no
+// entities are materialized, tracked by the session or dirty-checked. Rows come back as maps
+// keyed by field name, in the order the fields were requested.
+@ApplicationScoped
+public class UserProjections {
+
+    public static final Set<String> FIELDS = Set.of("id", "version", "name", "address", "email", "telephone");
+
+    // Parses "name,email" into a field list that always starts with id (needed for cursors and ordering)
+    public static List<String> parse(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return List.copyOf(selected);
+    }
+
+    // Keyset page, same order and bounds as User.findPage
+    public List<Map<String, Object>> page(List<String> fields, long afterId, int limit) {
+        return rows(fields, query(fields, "where u.id > :after", "u.id")
+                .setParameter("after", afterId)
+                .setMaxResults(limit));
+    }
+
+    // The given ids in list order; ids that no longer exist are skipped
+    public List<Map<String, Object>> byIds(List<String> fields, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Object, Map<String, Object>> byId = new HashMap<>();
+        for (Map<String, Object> row : rows(fields, query(fields, "where u.id in :ids", "u.id").setParameter("ids", ids))) {
+            byId.put(row.get("id"), row);
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // Same matching and order as User.findByName(name, limit)
+    public List<Map<String, Object>> byName(List<String> fields, String name, int limit) {
+        String pattern = "%" + name.trim().toLowerCase(Locale.ROOT) + "%";
+        return rows(fields, query(fields, "where lower(u.name) like :pattern", "u.name, u.id")
+                .setParameter("pattern", pattern)
+                .setMaxResults(limit));
+    }
+
+    private static TypedQuery<Object[]> query(List<String> fields, String where, String orderBy) {
+        StringBuilder hql = new StringBuilder("select ");
+        for (int i = 0; i < fields.size(); i++) {
+            hql.append(i == 0 ? "u." : ", u.").append(fields.get(i));
+        }
+        hql.append(" from User u ").append(where).append(" order by ").append(orderBy);
+        return User.getEntityManager()
+                .createQuery(hql.toString(), Object[].class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    private static List<Map<String, Object>> rows(List<String> fields, TypedQuery<Object[]> query) {
+        List<Object[]> tuples = query.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Object[] tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>(tuple.length * 2);
+            for (int i = 0; i < tuple.length; i++) {
+                row.put(fields.get(i), tuple[i]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
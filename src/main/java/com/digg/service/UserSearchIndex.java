@@ -0,0 +1,265 @@
+package com.digg.service;
+
+import com.digg.entity.User;
+import com.digg.entity.UserEvent;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// In-memory trigram index over user names for case-insensitive prefix and substring search.
+// Updated after each committed UserEvent and rebuilt from the database in the background on
+// startup, so startup time does not grow with the number of users; see isReady().
+@ApplicationScoped
+public class UserSearchIndex {
+
+    static final int GRAM = 3;
+
+    // Users read per transaction by the rebuild, so no single transaction runs into the timeout
+    static final int REBUILD_CHUNK = 10_000;
+
+    @Inject
+    Logger log;
+
+    // Lower-cased names padded with a space on both sides, so " ab" marks a word starting with "ab"
+    private final ConcurrentHashMap<Long, String> names = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Postings> postings = new ConcurrentHashMap<>();
+
+    // Ids changed by events while a rebuild runs; their event state is newer than the rebuild's read
+    private final Set<Long> touched = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt(Match::rank)
+            .thenComparingInt(Match::length)
+            .thenComparingLong(Match::id);
+
+    void onStart(@Observes @Priority(Interceptor.Priority.APPLICATION + 1000) StartupEvent ev) {
+        ready = false;
+        names.clear();
+        postings.clear();
+        touched.clear();
+        Thread.ofVirtual().name("search-index-rebuild").start(this::rebuild);
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Object[]> rows = readChunk(afterId);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                rows.forEach(row -> indexIfUntouched((Long) row[0], (String) row[1]));
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            ready = true;
+            touched.clear();
+            log.infof("Search index ready with %d users after %d ms", size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Search index rebuild failed; name search stays on the database fallback", e);
+        }
+    }
+
+    // Keyset page of (id, name) after the given id, each in its own short transaction
+    private static List<Object[]> readChunk(long afterId) {
+        return QuarkusTransaction.requiringNew().call(() -> User.getEntityManager()
+                .createQuery("select u.id, u.name from User u where u.id > :afterId order by u.id", Object[].class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(REBUILD_CHUNK)
+                .getResultList());
+    }
+
+    // True once the startup rebuild has finished; until then search() may miss users
+    public boolean isReady() {
+        return ready;
+    }
+
+    void onUserChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) UserEvent event) {
+        if (!ready) {
+            touched.add(event.id());
+        }
+        switch (event.type()) {
+            case CREATED, UPDATED -> {
+                if (event.name() != null) {
+                    index(event.id(), event.name());
+                }
+            }
+            case DELETED -> remove(event.id());
+        }
+    }
+
+    public void index(long id, String name) {
+        String entry = pad(name);
+        names.compute(id, (key, previous) -> {
+            if (!entry.equals(previous)) {
+                if (previous != null) {
+                    forEachGram(previous, gram -> unpost(gram, id));
+                }
+                forEachGram(entry, gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(id));
+            }
+            return entry;
+        });
+    }
+
+    // Rebuild path: an entry written by an event during the rebuild wins over the rebuild's older read
+    private void indexIfUntouched(long id, String name) {
+        if (touched.contains(id) || names.containsKey(id)) {
+            return;
+        }
+        names.compute(id, (key, previous) -> {
+            if (previous != null || touched.contains(id)) {
+                return previous;
+            }
+            String entry = pad(name);
+            forEachGram(entry, gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(id));
+            return entry;
+        });
+    }
+
+    public void remove(long id) {
+        names.computeIfPresent(id, (key, previous) -> {
+            forEachGram(previous, gram -> unpost(gram, id));
+            return null;
+        });
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    // Ids of the best `limit` matches: name prefix first, then word prefix, then substring;
+    // shorter names rank higher within each group. Terms under three characters only match word prefixes.
+    public List<Long> search(String term, int limit) {
+        String query = normalize(term);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        String pattern = query.length() < GRAM ? " " + query : query;
+
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (long id : candidates(pattern)) {
+            String name = names.get(id);
+            int pos = name == null ? -1 : name.indexOf(pattern);
+            if (pos < 0) {
+                continue;
+            }
+            best.add(new Match(id, rank(name, pattern, pos), name.length()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        return ranked.stream().map(Match::id).toList();
+    }
+
+    // Ids that may contain the pattern; callers still verify against the stored name
+    private long[] candidates(String pattern) {
+        if (pattern.length() < GRAM) {
+            // One-letter term: the word-start key " x" lists exactly the users with a word starting with it
+            Postings p = postings.get(pattern);
+            return p == null ? new long[0] : p.snapshot();
+        }
+
+        // The rarest trigram of the pattern gives the smallest candidate set
+        Postings rarest = null;
+        for (int i = 0; i + GRAM <= pattern.length(); i++) {
+            Postings p = postings.get(pattern.substring(i, i + GRAM));
+            if (p == null) {
+                return new long[0];
+            }
+            if (rarest == null || p.size() < rarest.size()) {
+                rarest = p;
+            }
+        }
+        return rarest.snapshot();
+    }
+
+    private void unpost(String gram, long id) {
+        Postings p = postings.get(gram);
+        if (p != null) {
+            p.remove(id);
+        }
+    }
+
+    private static int rank(String name, String pattern, int pos) {
+        if (pos <= 1) {
+            return 0;
+        }
+        return pattern.charAt(0) == ' ' || name.charAt(pos - 1) == ' ' ? 1 : 2;
+    }
+
+    // Every trigram of the entry, plus a two-character " x" key per word start for one-letter terms
+    private static void forEachGram(String entry, Consumer<String> action) {
+        for (int i = 0; i + GRAM <= entry.length(); i++) {
+            action.accept(entry.substring(i, i + GRAM));
+            if (entry.charAt(i) == ' ' && entry.charAt(i + 1) != ' ') {
+                action.accept(entry.substring(i, i + GRAM - 1));
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String pad(String name) {
+        return " " + normalize(name) + " ";
+    }
+
+    private record Match(long id, int rank, int length) {}
+
+    // Sorted ids sharing one trigram; ids mostly arrive in increasing order, so adds are appends
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        synchronized void add(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insert = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            ids[insert] = id;
+            size++;
+        }
+
+        synchronized void remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long[] snapshot() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
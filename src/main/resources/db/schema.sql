@@ -0,0 +1,16 @@
+-- Schema of the file-backed database used by the prod profile (see application.properties).
+-- H2 runs this script through INIT whenever it opens a connection, so every statement must be
+-- idempotent. Keep in sync with com.digg.entity.User; Hibernate validates it on startup.
+
+CREATE SEQUENCE IF NOT EXISTS users_SEQ START WITH 1 INCREMENT BY 500;
+
+CREATE TABLE IF NOT EXISTS users (
+    id        BIGINT       NOT NULL,
+    version   BIGINT       NOT NULL,
+    name      VARCHAR(255),
+    address   VARCHAR(255),
+    email     VARCHAR(255),
+    telephone VARCHAR(255),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
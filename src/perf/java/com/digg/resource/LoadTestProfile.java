@@ -0,0 +1,21 @@
+package com.digg.resource;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+// Same 100k users on every run, and no admission control in the way of the offered load
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    static final int USERS = 100_000;
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+                "digg.seed.count", String.valueOf(USERS),
+                "digg.seed.seed", "42",
+                "digg.rate-limit.enabled", "false",
+                "digg.virtual-threads.pinning-monitor.enabled", "false",
+                "quarkus.log.category.\"com.digg.access\".level", "WARN");
+    }
+}
@@ -0,0 +1,276 @@
+package com.digg.resource;
+
+import com.digg.service.UserSearchIndex;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Open-loop load test: requests are started on a fixed schedule whether or not earlier ones have
+// finished, and latency is measured from the scheduled start, so a stall shows up in the tail
+// instead of slowing the load down (no coordinated omission). Fails when an operation's p99
+// exceeds src/perf/resources/perf-baseline.properties by more than the allowed margin; until
+// that file has been recorded the run only reports and the gate is skipped.
+//
+//   mvn -Pperf test                                  # compare against the baseline
+//   mvn -Pperf test -Dperf.update-baseline=true      # record a new baseline
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@Tag("perf")
+public class UserResourceLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("perf.rate", "400"));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("perf.warmup", 15));
+    private static final Duration MEASURE = Duration.ofSeconds(Long.getLong("perf.duration", 30));
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("perf.tolerance", "0.25"));
+    private static final double SLACK_MS = Double.parseDouble(System.getProperty("perf.slack-ms", "2"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("perf.update-baseline");
+
+    private static final String BASELINE = "perf-baseline.properties";
+    private static final File BASELINE_SOURCE = new File("src/perf/resources/" + BASELINE);
+    private static final File REPORTS = new File("target/perf");
+
+    private static final String[] SEARCH_TERMS = {"ali", "smith", "son", "an", "grace", "lee", "par", "mar"};
+
+    // Named after the operation tag of the users.requests timers; weights add up to 100
+    private enum Operation {
+        GET_BY_ID("getUserById", 50),
+        SEARCH("searchUsersByName", 15),
+        LIST_PAGE("getAllUsers", 5),
+        COUNT("getUserCount", 5),
+        CREATE("createUser", 10),
+        PATCH("patchUser", 15);
+
+        final String tag;
+        final int weight;
+
+        Operation(String tag, int weight) {
+            this.tag = tag;
+            this.weight = weight;
+        }
+    }
+
+    @TestHTTPResource("/users")
+    URI users;
+
+    @Inject
+    UserSearchIndex searchIndex;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final AtomicLong created = new AtomicLong();
+
+    @Test
+    @DisplayName("Should keep p99 latency per operation within the stored baseline")
+    public void testLatencyBaseline() throws Exception {
+        awaitSearchIndex();
+
+        run(WARMUP, new SplittableRandom(41));
+        Map<Operation, Result> results = run(MEASURE, new SplittableRandom(42));
+        report(results);
+
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            assertEquals(0, entry.getValue().errors().sum(), entry.getKey().tag + " requests failed");
+        }
+        if (UPDATE_BASELINE) {
+            writeBaseline(results);
+            return;
+        }
+
+        // No gate until a baseline has been recorded on the machine that enforces it
+        Properties baseline = loadBaseline();
+        assumeTrue(baseline != null, BASELINE + " not recorded yet; run with -Dperf.update-baseline=true and commit it");
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            String key = entry.getKey().tag + ".p99.ms";
+            String stored = baseline.getProperty(key);
+            if (stored == null) {
+                regressions.add(key + " is missing from " + BASELINE);
+                continue;
+            }
+            double expected = Double.parseDouble(stored);
+            double allowed = expected * (1 + TOLERANCE) + SLACK_MS;
+            double actual = p99Millis(entry.getValue().latencies());
+            if (actual > allowed) {
+                regressions.add(String.format(Locale.ROOT, "%s p99 %.2f ms > %.2f ms allowed (baseline %.2f ms)",
+                        entry.getKey().tag, actual, allowed, expected));
+            }
+        }
+        assertTrue(regressions.isEmpty(), "p99 regressed: " + String.join("; ", regressions));
+    }
+
+    // Until the index is built, search runs on the database fallback and would skew the run
+    private void awaitSearchIndex() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (!searchIndex.isReady()) {
+            assertTrue(System.nanoTime() < deadline, "Search index not ready");
+            Thread.sleep(100);
+        }
+    }
+
+    private Map<Operation, Result> run(Duration duration, SplittableRandom random) {
+        Map<Operation, Result> results = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            results.put(operation, new Result(new ConcurrentHistogram(3), new LongAdder()));
+        }
+
+        long interval = Math.round(1e9 / RATE);
+        long requests = duration.toNanos() / interval;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long delay = scheduled - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Operation operation = pick(random);
+                HttpRequest request = request(operation, random);
+                Result result = results.get(operation);
+                executor.submit(() -> send(request, scheduled, result));
+            }
+        }
+        return results;
+    }
+
+    private void send(HttpRequest request, long scheduled, Result result) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                result.errors().increment();
+                return;
+            }
+            result.latencies().recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled));
+        } catch (IOException | InterruptedException e) {
+            result.errors().increment();
+        }
+    }
+
+    private static Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Operation weights must add up to 100");
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        long id = 1 + random.nextInt(LoadTestProfile.USERS);
+        return switch (operation) {
+            case GET_BY_ID -> get(users + "/" + id);
+            case SEARCH -> get(users + "/search?name=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]);
+            case LIST_PAGE -> get(users + "?limit=100");
+            case COUNT -> get(users + "/count");
+            case CREATE -> {
+                long n = created.incrementAndGet();
+                String body = """
+                        {"name": "Load User %d", "address": "%d Load St", "email": "load%d@perf.digg.com", "telephone": "(555) 010-0000"}
+                        """.formatted(n, n, n);
+                yield HttpRequest.newBuilder(users)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .timeout(Duration.ofSeconds(10))
+                        .build();
+            }
+            case PATCH -> HttpRequest.newBuilder(URI.create(users + "/" + id))
+                    .header("Content-Type", UserResource.MERGE_PATCH_JSON)
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                            "{\"telephone\": \"(555) 010-" + String.format(Locale.ROOT, "%04d", random.nextInt(10_000)) + "\"}"))
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+        };
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().timeout(Duration.ofSeconds(10)).build();
+    }
+
+    // One .hgrm percentile distribution per operation (in ms) plus a summary on stdout
+    private static void report(Map<Operation, Result> results) throws IOException {
+        REPORTS.mkdirs();
+        System.out.printf(Locale.ROOT, "Load test at %.0f req/s for %d s%n", RATE, MEASURE.toSeconds());
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            Histogram latencies = entry.getValue().latencies();
+            System.out.printf(Locale.ROOT, "%-18s n=%6d errors=%d p50=%.2f p99=%.2f p99.9=%.2f max=%.2f ms%n",
+                    entry.getKey().tag, latencies.getTotalCount(), entry.getValue().errors().sum(),
+                    latencies.getValueAtPercentile(50) / 1000.0, p99Millis(latencies),
+                    latencies.getValueAtPercentile(99.9) / 1000.0, latencies.getMaxValue() / 1000.0);
+            try (PrintStream out = new PrintStream(new File(REPORTS, entry.getKey().tag + ".hgrm"))) {
+                latencies.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    // The recorded baseline, or null when there is none yet
+    private static Properties loadBaseline() throws IOException {
+        try (InputStream in = UserResourceLoadTest.class.getClassLoader().getResourceAsStream(BASELINE)) {
+            if (in == null) {
+                return null;
+            }
+            Properties baseline = new Properties();
+            baseline.load(in);
+            return baseline;
+        }
+    }
+
+    private static void writeBaseline(Map<Operation, Result> results) throws IOException {
+        BASELINE_SOURCE.getParentFile().mkdirs();
+        Properties baseline = new Properties();
+        for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+            baseline.setProperty(entry.getKey().tag + ".p99.ms",
+                    String.format(Locale.ROOT, "%.2f", p99Millis(entry.getValue().latencies())));
+        }
+        try (OutputStream out = new FileOutputStream(BASELINE_SOURCE)) {
+            baseline.store(out, String.format(Locale.ROOT,
+                    "p99 latency per operation at %.0f req/s over %d s, %d seeded users",
+                    RATE, MEASURE.toSeconds(), LoadTestProfile.USERS));
+        }
+        System.out.println("Wrote " + BASELINE_SOURCE);
+    }
+
+    private static double p99Millis(Histogram latencies) {
+        return latencies.getValueAtPercentile(99) / 1000.0;
+    }
+
+    private record Result(Histogram latencies, LongAdder errors) {}
+}
@@ -0,0 +1,8 @@
+package com.digg.resource;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+// Runs UserResourceTest against the packaged application, the native binary with -Pnative
+@QuarkusIntegrationTest
+public class UserResourceIT extends UserResourceTest {
+}
@@ -1,11 +1,27 @@
 package com.digg.resource;
 
+import com.digg.entity.User;
+import com.digg.service.UserIngestQueue;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.DisabledOnIntegrationTest;
+import io.quarkus.test.junit.QuarkusMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
@@ -14,15 +30,190 @@ import static org.hamcrest.Matchers.notNullValue;
 public class UserResourceTest {
     private static final String BASE_PATH = "/users";
 
+    @TestHTTPResource("/users/changes")
+    URI changesUri;
+
     @Test
-    @DisplayName("Should return all users")
+    @DisplayName("Should return the first page of users when no limit is given")
     public void testGetAllUsers() {
         given()
                 .when().get(BASE_PATH)
                 .then()
                 .statusCode(200)
                 .contentType(ContentType.JSON)
-                .body("size()", equalTo(50));
+                .body("items.size()", org.hamcrest.Matchers.greaterThan(0))
+                .body("items.size()", org.hamcrest.Matchers.lessThanOrEqualTo(UserResource.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    @DisplayName("Should reject a search without a name")
+    public void testSearchWithoutName() {
+        given()
+                .queryParam("name", " ")
+                .when().get(BASE_PATH + "/search")
+                .then()
+                .statusCode(400)
+                .body("error", equalTo("Name is required"));
+
+        given().when().get(BASE_PATH + "/search").then().statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Should reject out-of-range limits on list and search alike")
+    public void testInvalidLimit() {
+        for (int limit : new int[] {0, -1, UserResource.MAX_PAGE_SIZE + 1}) {
+            given()
+                    .queryParam("name", "a")
+                    .queryParam("limit", limit)
+                    .when().get(BASE_PATH + "/search")
+                    .then()
+                    .statusCode(400)
+                    .body("error", equalTo("Limit must be between 1 and " + UserResource.MAX_PAGE_SIZE));
+
+            given()
+                    .queryParam("limit", limit)
+                    .when().get(BASE_PATH)
+                    .then()
+                    .statusCode(400)
+                    .body("error", equalTo("Limit must be between 1 and " + UserResource.MAX_PAGE_SIZE));
+        }
+    }
+
+    @Test
+    @DisplayName("Should page through users with a keyset cursor")
+    public void testGetUsersPaged() {
+        Response firstPage = given()
+                .queryParam("limit", 10)
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(200)
+                .body("items.size()", equalTo(10))
+                .body("nextCursor", notNullValue())
+                .extract().response();
+
+        long lastId = firstPage.jsonPath().getLong("items[9].id");
+        String cursor = firstPage.jsonPath().getString("nextCursor");
+
+        given()
+                .queryParam("after", cursor)
+                .queryParam("limit", 10)
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(200)
+                .body("items[0].id", org.hamcrest.Matchers.greaterThan((int) lastId));
+
+        given()
+                .queryParam("after", "not-a-cursor")
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(400)
+                .body("error", equalTo("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Should return only the requested fields")
+    public void testGetUsersWithFields() {
+        given()
+                .queryParam("limit", 5)
+                .queryParam("fields", "name,email")
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(200)
+                .body("items.size()", equalTo(5))
+                .body("items[0].id", notNullValue())
+                .body("items[0].name", notNullValue())
+                .body("items[0].email", notNullValue())
+                .body("items[0].address", org.hamcrest.Matchers.nullValue())
+                .body("items[0].keySet()", org.hamcrest.Matchers.containsInAnyOrder("id", "name", "email"))
+                .body("nextCursor", notNullValue());
+
+        given()
+                .queryParam("name", "a")
+                .queryParam("fields", "name")
+                .when().get(BASE_PATH + "/search")
+                .then()
+                .statusCode(200)
+                .body("[0].keySet()", org.hamcrest.Matchers.containsInAnyOrder("id", "name"));
+
+        given()
+                .queryParam("fields", "name,password")
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Should compress list responses but not single users")
+    public void testResponseCompression() {
+        given()
+                .header("Accept-Encoding", "gzip")
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .body("items.size()", org.hamcrest.Matchers.greaterThan(0))
+                .body("items[0].email", notNullValue());
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .when().get(BASE_PATH + "/1")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", org.hamcrest.Matchers.nullValue());
+    }
+
+    @Test
+    @DisplayName("Should get many users by id in request order with not-found markers")
+    public void testGetUsersByIds() {
+        given()
+                .queryParam("ids", "3,999999,1,3")
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(4))
+                .body("[0].id", equalTo(3))
+                .body("[0].found", equalTo(true))
+                .body("[0].user.id", equalTo(3))
+                .body("[1].id", equalTo(999999))
+                .body("[1].found", equalTo(false))
+                .body("[1].user", org.hamcrest.Matchers.nullValue())
+                .body("[2].user.id", equalTo(1))
+                .body("[3].user.id", equalTo(3));
+
+        given()
+                .queryParam("ids", "1,abc")
+                .when().get(BASE_PATH)
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Should export users as newline-delimited JSON")
+    public void testExportUsers() {
+        int count = given()
+                .when().get(BASE_PATH + "/count")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getInt("count");
+
+        String body = given()
+                .when().get(BASE_PATH + "/export")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        // One complete user object per line, in id order
+        String[] lines = body.trim().split("\n");
+        org.junit.jupiter.api.Assertions.assertTrue(lines.length >= count);
+        long previousId = 0;
+        for (String line : lines) {
+            JsonPath user = JsonPath.from(line);
+            long id = user.getLong("id");
+            org.junit.jupiter.api.Assertions.assertTrue(id > previousId, line);
+            org.junit.jupiter.api.Assertions.assertTrue(user.getString("email").contains("@"), line);
+            previousId = id;
+        }
     }
 
     @Test
@@ -48,6 +239,263 @@ public class UserResourceTest {
                 .body("email", equalTo("test@digg.com"));
     }
 
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a client exceeds its rate")
+    public void testRateLimit() {
+        // A client of its own, so the exhausted bucket does not affect the other tests
+        String client = "203.0.113.23";
+        Response limited = null;
+        for (int attempt = 0; attempt < 1000 && limited == null; attempt++) {
+            Response response = given()
+                    .header("X-Forwarded-For", client)
+                    .queryParam("name", "zz")
+                    .when().get(BASE_PATH + "/search");
+            if (response.statusCode() == 429) {
+                limited = response;
+            } else {
+                org.junit.jupiter.api.Assertions.assertEquals(200, response.statusCode());
+            }
+        }
+        org.junit.jupiter.api.Assertions.assertNotNull(limited);
+        org.junit.jupiter.api.Assertions.assertNotNull(limited.getHeader("Retry-After"));
+        org.junit.jupiter.api.Assertions.assertTrue(limited.jsonPath().getString("error").contains("Too many requests"));
+
+        // Buckets are per client and per endpoint
+        given().header("X-Forwarded-For", client).when().get(BASE_PATH + "/count").then().statusCode(200);
+        given().header("X-Forwarded-For", "203.0.113.24").queryParam("name", "zz")
+                .when().get(BASE_PATH + "/search").then().statusCode(200);
+
+        given().when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(org.hamcrest.Matchers.containsString("users_rate_limit_rejected_total{group=\"expensive\",reason=\"rate\""));
+    }
+
+    @Test
+    @DisabledOnIntegrationTest("Replaces the ingest queue bean, which needs the application in the test JVM")
+    @DisplayName("Should answer 429 with Retry-After when the async create queue is full")
+    public void testAsyncCreateQueueFull() {
+        QuarkusMock.installMockForType(new UserIngestQueue() {
+            @Override
+            public String submit(User user) {
+                return null;
+            }
+        }, UserIngestQueue.class);
+
+        given()
+                .contentType(ContentType.JSON)
+                .queryParam("async", true)
+                .body("""
+                        {"name": "Refused User", "address": "1 Full St", "email": "refused@digg.com", "telephone": "(555) 212-1213"}
+                        """)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(429)
+                .header("Retry-After", "1")
+                .body("error", equalTo("Too many pending users, retry later"));
+
+        given().when().get(BASE_PATH + "/email/refused@digg.com").then().statusCode(404);
+    }
+
+    @Test
+    @DisplayName("Should queue async creates and report their status")
+    public void testAsyncCreate() throws InterruptedException {
+        String newUser = """
+                {
+                    "name": "Queued User",
+                    "address": "1 Queue St",
+                    "email": "queued@digg.com",
+                    "telephone": "(555) 212-1212"
+                }
+                """;
+
+        String trackingId = given()
+                .contentType(ContentType.JSON)
+                .queryParam("async", true)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(202)
+                .header("Location", org.hamcrest.Matchers.containsString("/users/ingest/"))
+                .body("status", equalTo("queued"))
+                .extract().jsonPath().getString("id");
+
+        Response status = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            status = given().when().get(BASE_PATH + "/ingest/" + trackingId).then().statusCode(200).extract().response();
+            if (!"queued".equals(status.jsonPath().getString("status"))) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        org.junit.jupiter.api.Assertions.assertEquals("created", status.jsonPath().getString("status"));
+
+        long userId = status.jsonPath().getLong("userId");
+        given().when().get(BASE_PATH + "/" + userId)
+                .then()
+                .statusCode(200)
+                .body("email", equalTo("queued@digg.com"));
+
+        given().when().get(BASE_PATH + "/ingest/unknown").then().statusCode(404);
+        given().delete(BASE_PATH + "/" + userId);
+    }
+
+    @Test
+    @DisplayName("Should reject creating a user with an existing email")
+    public void testCreateDuplicateEmail() {
+        String newUser = """
+                {
+                    "name": "Duplicate Email",
+                    "address": "1 Unique St",
+                    "email": "duplicate@digg.com",
+                    "telephone": "(555) 404-0404"
+                }
+                """;
+
+        Long userId = given()
+                .contentType(ContentType.JSON)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(409)
+                .body("error", equalTo("Email already exists"));
+
+        given().delete(BASE_PATH + "/" + userId);
+    }
+
+    @Test
+    @DisplayName("Should create, update and delete users in batches with per-item results")
+    public void testBatchOperations() {
+        String batch = """
+                [
+                    {"name": "Batch One", "address": "1 Batch St", "email": "batch1@digg.com", "telephone": "(555) 000-0001"},
+                    {"name": "Batch Two", "address": "2 Batch St", "email": "batch2@digg.com", "telephone": "(555) 000-0002"},
+                    {"name": "Batch Dup", "address": "3 Batch St", "email": "batch1@digg.com", "telephone": "(555) 000-0003"},
+                    {"name": "", "address": "4 Batch St", "email": "batch4@digg.com", "telephone": "(555) 000-0004"}
+                ]
+                """;
+
+        Response created = given()
+                .contentType(ContentType.JSON)
+                .body(batch)
+                .when().post(BASE_PATH + "/batch")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(4))
+                .body("[0].status", equalTo(201))
+                .body("[1].status", equalTo(201))
+                .body("[2].status", equalTo(409))
+                .body("[3].status", equalTo(400))
+                .extract().response();
+
+        Long id1 = created.jsonPath().getLong("[0].id");
+        Long id2 = created.jsonPath().getLong("[1].id");
+
+        String updates = """
+                [
+                    {"id": %d, "name": "Batch One Updated", "address": "1 Batch St", "email": "batch1@digg.com", "telephone": "(555) 000-0001"},
+                    {"id": 999999, "name": "Missing", "address": "0 Nowhere", "email": "missing@digg.com", "telephone": "(555) 000-0000"}
+                ]
+                """.formatted(id1);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(updates)
+                .when().put(BASE_PATH + "/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo(200))
+                .body("[1].status", equalTo(404));
+
+        given()
+                .when().get(BASE_PATH + "/" + id1)
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("Batch One Updated"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("[" + id1 + ", " + id2 + ", 999999]")
+                .when().delete(BASE_PATH + "/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo(204))
+                .body("[1].status", equalTo(204))
+                .body("[2].status", equalTo(404));
+    }
+
+    @Test
+    @DisplayName("Should swap the emails of two users in one batch update")
+    public void testBatchEmailSwap() {
+        Response created = given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        [
+                            {"name": "Swap One", "address": "1 Swap St", "email": "swap1@digg.com", "telephone": "(555) 000-0011"},
+                            {"name": "Swap Two", "address": "2 Swap St", "email": "swap2@digg.com", "telephone": "(555) 000-0012"}
+                        ]
+                        """)
+                .when().post(BASE_PATH + "/batch")
+                .then()
+                .statusCode(200)
+                .extract().response();
+        long id1 = created.jsonPath().getLong("[0].id");
+        long id2 = created.jsonPath().getLong("[1].id");
+        // Cache both users by email so the swap has to invalidate them
+        given().when().get(BASE_PATH + "/email/swap1@digg.com").then().statusCode(200).body("id", equalTo((int) id1));
+        given().when().get(BASE_PATH + "/email/swap2@digg.com").then().statusCode(200).body("id", equalTo((int) id2));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        [
+                            {"id": %d, "name": "Swap One", "address": "1 Swap St", "email": "swap2@digg.com", "telephone": "(555) 000-0011"},
+                            {"id": %d, "name": "Swap Two", "address": "2 Swap St", "email": "swap1@digg.com", "telephone": "(555) 000-0012"}
+                        ]
+                        """.formatted(id1, id2))
+                .when().put(BASE_PATH + "/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo(200))
+                .body("[1].status", equalTo(200));
+
+        given().when().get(BASE_PATH + "/" + id1).then().statusCode(200).body("email", equalTo("swap2@digg.com"));
+        given().when().get(BASE_PATH + "/" + id2).then().statusCode(200).body("email", equalTo("swap1@digg.com"));
+        given().when().get(BASE_PATH + "/email/swap1@digg.com").then().statusCode(200).body("id", equalTo((int) id2));
+
+        // A write based on the state before the swap is refused
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "\"" + id1 + "-0\"")
+                .body("""
+                        {"name": "Swap One Stale", "address": "1 Swap St", "email": "swap1@digg.com", "telephone": "(555) 000-0011"}
+                        """)
+                .when().put(BASE_PATH + "/" + id1)
+                .then()
+                .statusCode(412);
+
+        // Taking the email of a user outside the batch is still a per-item conflict
+        given()
+                .contentType(ContentType.JSON)
+                .body("""
+                        [{"id": %d, "name": "Swap One", "address": "1 Swap St", "email": "swap1@digg.com", "telephone": "(555) 000-0011"}]
+                        """.formatted(id1))
+                .when().put(BASE_PATH + "/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo(409));
+
+        given().contentType(ContentType.JSON).body("[" + id1 + ", " + id2 + "]").delete(BASE_PATH + "/batch");
+    }
+
     @Test
     @DisplayName("Should get user by ID")
     public void testGetUserById() {
@@ -65,12 +513,13 @@ public class UserResourceTest {
     public void testSearchWithKnownName() {
         // Get first user's name
         Response response = given()
+                .queryParam("limit", 1)
                 .when().get("/users")
                 .then()
                 .statusCode(200)
                 .extract().response();
 
-        String firstName = response.jsonPath().getString("[0].name").split(" ")[0];
+        String firstName = response.jsonPath().getString("items[0].name").split(" ")[0];
 
         System.out.println("Testing search with name: " + firstName);
 
@@ -82,6 +531,368 @@ public class UserResourceTest {
                 .body("size()", org.hamcrest.Matchers.greaterThan(0));
     }
 
+    @Test
+    @DisplayName("Should find users by case-insensitive prefix and substring")
+    public void testSearchIsCaseInsensitive() {
+        String newUser = """
+                {
+                    "name": "Quillon Vexworth",
+                    "address": "1 Search St",
+                    "email": "quillon.vexworth@digg.com",
+                    "telephone": "(555) 303-0303"
+                }
+                """;
+
+        Long userId = given()
+                .contentType(ContentType.JSON)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+
+        given()
+                .queryParam("name", "QUILL")
+                .when().get("/users/search")
+                .then()
+                .statusCode(200)
+                .body("[0].id", equalTo(userId.intValue()));
+
+        given()
+                .queryParam("name", "xwort")
+                .queryParam("limit", 5)
+                .when().get("/users/search")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].name", equalTo("Quillon Vexworth"));
+
+        given().delete(BASE_PATH + "/" + userId);
+
+        given()
+                .queryParam("name", "vexworth")
+                .when().get("/users/search")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(0));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the cache and drop stale entries on update")
+    public void testCachedLookupInvalidatedOnUpdate() {
+        String newUser = """
+                {
+                    "name": "Cached User",
+                    "address": "1 Cache St",
+                    "email": "cached@digg.com",
+                    "telephone": "(555) 505-0505"
+                }
+                """;
+
+        Long userId = given()
+                .contentType(ContentType.JSON)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+
+        long hitsBefore = given().when().get(BASE_PATH + "/cache/stats")
+                .then().statusCode(200)
+                .extract().jsonPath().getLong("byId.hits");
+
+        given().when().get(BASE_PATH + "/" + userId).then().statusCode(200);
+        given().when().get(BASE_PATH + "/" + userId).then().statusCode(200);
+        given().when().get(BASE_PATH + "/email/cached@digg.com").then().statusCode(200);
+
+        given().when().get(BASE_PATH + "/cache/stats")
+                .then().statusCode(200)
+                .body("byId.hits", org.hamcrest.Matchers.greaterThan((int) hitsBefore));
+
+        String updatedUser = """
+                {
+                    "name": "Cached User Renamed",
+                    "address": "1 Cache St",
+                    "email": "cached-renamed@digg.com",
+                    "telephone": "(555) 505-0505"
+                }
+                """;
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(updatedUser)
+                .when().put(BASE_PATH + "/" + userId)
+                .then()
+                .statusCode(200);
+
+        given().when().get(BASE_PATH + "/" + userId)
+                .then().statusCode(200)
+                .body("name", equalTo("Cached User Renamed"));
+        given().when().get(BASE_PATH + "/email/cached@digg.com")
+                .then().statusCode(404);
+
+        given().delete(BASE_PATH + "/" + userId);
+    }
+
+    @Test
+    @DisplayName("Should keep the user count in step with creates and deletes")
+    public void testUserCountTracksWrites() {
+        int before = given().when().get(BASE_PATH + "/count")
+                .then().statusCode(200)
+                .extract().jsonPath().getInt("count");
+
+        String newUser = """
+                {
+                    "name": "Counted User",
+                    "address": "1 Count St",
+                    "email": "counted@digg.com",
+                    "telephone": "(555) 606-0606"
+                }
+                """;
+
+        Long userId = given()
+                .contentType(ContentType.JSON)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+
+        given().when().get(BASE_PATH + "/count")
+                .then().statusCode(200)
+                .body("count", equalTo(before + 1));
+
+        given().delete(BASE_PATH + "/" + userId);
+
+        given().when().get(BASE_PATH + "/count")
+                .then().statusCode(200)
+                .body("count", equalTo(before));
+    }
+
+    @Test
+    @DisplayName("Should publish per-operation timers and pool gauges at /q/metrics")
+    public void testMetricsExposed() {
+        given().when().get(BASE_PATH + "/1").then().statusCode(200);
+        given().queryParam("name", "a").when().get(BASE_PATH + "/search").then().statusCode(200);
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(org.hamcrest.Matchers.containsString("users_requests_seconds_count{operation=\"getUserById\""))
+                .body(org.hamcrest.Matchers.containsString("users_result_size_count{operation=\"searchUsersByName\""))
+                .body(org.hamcrest.Matchers.containsString("users_count"))
+                .body(org.hamcrest.Matchers.containsString("users_lookups_executions_total{lookup=\"id\""))
+                .body(org.hamcrest.Matchers.containsString("users_access_server_errors_total"))
+                .body(org.hamcrest.Matchers.containsString("agroal_"));
+    }
+
+    @Test
+    @DisplayName("Should answer conditional requests with 304 and reject stale If-Match with 412")
+    public void testConditionalRequests() {
+        String newUser = """
+                {
+                    "name": "Tagged User",
+                    "address": "1 Tag St",
+                    "email": "tagged@digg.com",
+                    "telephone": "(555) 707-0707"
+                }
+                """;
+
+        Response created = given()
+                .contentType(ContentType.JSON)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(201)
+                .header("ETag", notNullValue())
+                .extract().response();
+        Long userId = created.jsonPath().getLong("id");
+        String tag = created.header("ETag");
+
+        given().header("If-None-Match", tag)
+                .when().get(BASE_PATH + "/" + userId)
+                .then().statusCode(304);
+
+        String countTag = given().when().get(BASE_PATH + "/count")
+                .then().statusCode(200)
+                .extract().header("ETag");
+        given().header("If-None-Match", countTag)
+                .when().get(BASE_PATH + "/count")
+                .then().statusCode(304);
+
+        String updatedUser = """
+                {
+                    "name": "Tagged User Renamed",
+                    "address": "1 Tag St",
+                    "email": "tagged@digg.com",
+                    "telephone": "(555) 707-0707"
+                }
+                """;
+
+        String newTag = given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", tag)
+                .body(updatedUser)
+                .when().put(BASE_PATH + "/" + userId)
+                .then()
+                .statusCode(200)
+                .body("version", equalTo(1))
+                .extract().header("ETag");
+
+        // Both the old tag and the collection tag are stale after the update
+        given().contentType(ContentType.JSON)
+                .header("If-Match", tag)
+                .body(updatedUser)
+                .when().put(BASE_PATH + "/" + userId)
+                .then().statusCode(412);
+        given().header("If-None-Match", countTag)
+                .when().get(BASE_PATH + "/count")
+                .then().statusCode(200);
+
+        given().header("If-Match", tag).when().delete(BASE_PATH + "/" + userId).then().statusCode(412);
+        given().header("If-Match", newTag).when().delete(BASE_PATH + "/" + userId).then().statusCode(204);
+    }
+
+    @Test
+    @DisplayName("Should patch only the supplied fields")
+    public void testPatchUser() {
+        String newUser = """
+                {
+                    "name": "Patched User",
+                    "address": "1 Patch St",
+                    "email": "patched@digg.com",
+                    "telephone": "(555) 808-0808"
+                }
+                """;
+
+        Long userId = given()
+                .contentType(ContentType.JSON)
+                .body(newUser)
+                .when().post(BASE_PATH)
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getLong("id");
+
+        // Cache the user so the patch has to invalidate it
+        given().when().get(BASE_PATH + "/" + userId).then().statusCode(200);
+
+        given()
+                .contentType("application/merge-patch+json")
+                .header("If-Match", "\"" + userId + "-0\"")
+                .body("{\"telephone\": \"(555) 909-0909\"}")
+                .when().patch(BASE_PATH + "/" + userId)
+                .then()
+                .statusCode(204)
+                .header("ETag", equalTo("\"" + userId + "-1\""));
+
+        given().when().get(BASE_PATH + "/" + userId)
+                .then()
+                .statusCode(200)
+                .body("telephone", equalTo("(555) 909-0909"))
+                .body("name", equalTo("Patched User"))
+                .body("email", equalTo("patched@digg.com"))
+                .body("version", equalTo(1));
+
+        given()
+                .contentType("application/merge-patch+json")
+                .header("If-Match", "\"" + userId + "-0\"")
+                .body("{\"name\": \"Stale Name\"}")
+                .when().patch(BASE_PATH + "/" + userId)
+                .then().statusCode(412);
+
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"email\": \"not-an-email\"}")
+                .when().patch(BASE_PATH + "/" + userId)
+                .then()
+                .statusCode(400)
+                .body("error", equalTo("Invalid email format"));
+
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"id\": 1}")
+                .when().patch(BASE_PATH + "/" + userId)
+                .then().statusCode(400);
+
+        given()
+                .contentType("application/merge-patch+json")
+                .body("{\"name\": \"Nobody\"}")
+                .when().patch(BASE_PATH + "/999999")
+                .then().statusCode(404);
+
+        given().delete(BASE_PATH + "/" + userId);
+    }
+
+    @Test
+    @DisplayName("Should stream committed changes and resume after Last-Event-ID")
+    public void testChangeFeed() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        Map<String, String> created;
+        try (Stream<String> lines = openChanges(client, null)) {
+            Long userId = given()
+                    .contentType(ContentType.JSON)
+                    .body("""
+                            {
+                                "name": "Streamed User",
+                                "address": "1 Stream St",
+                                "email": "streamed@digg.com",
+                                "telephone": "(555) 606-0606"
+                            }
+                            """)
+                    .when().post(BASE_PATH)
+                    .then()
+                    .statusCode(201)
+                    .extract().jsonPath().getLong("id");
+
+            created = nextEvent(lines.iterator(), "created");
+            org.junit.jupiter.api.Assertions.assertTrue(created.get("data").contains("\"id\":" + userId));
+            org.junit.jupiter.api.Assertions.assertTrue(created.get("data").contains("streamed@digg.com"));
+
+            given().delete(BASE_PATH + "/" + userId).then().statusCode(204);
+        }
+
+        // A client that saw the create and reconnects gets the delete it missed
+        try (Stream<String> lines = openChanges(client, created.get("id"))) {
+            Map<String, String> deleted = nextEvent(lines.iterator(), "deleted");
+            org.junit.jupiter.api.Assertions.assertTrue(deleted.get("data").contains("\"type\":\"deleted\""));
+        }
+
+        try (Stream<String> lines = openChanges(client, "unknown-1")) {
+            nextEvent(lines.iterator(), "reset");
+        }
+    }
+
+    private Stream<String> openChanges(HttpClient client, String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(changesUri).header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        org.junit.jupiter.api.Assertions.assertEquals(200, response.statusCode());
+        return response.body();
+    }
+
+    // Fields (id, event, data) of the next event with the given name, skipping others
+    private static Map<String, String> nextEvent(Iterator<String> lines, String name) {
+        return org.junit.jupiter.api.Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            Map<String, String> fields = new HashMap<>();
+            while (lines.hasNext()) {
+                String line = lines.next();
+                if (line.isEmpty()) {
+                    if (name.equals(fields.get("event"))) {
+                        return fields;
+                    }
+                    fields.clear();
+                } else if (line.indexOf(':') > 0) {
+                    int colon = line.indexOf(':');
+                    fields.put(line.substring(0, colon), line.substring(colon + 1).trim());
+                }
+            }
+            throw new AssertionError("Stream ended before a " + name + " event");
+        });
+    }
+
     @Test
     @DisplayName("Should return 404 for non-existent user")
     public void testGetNonExistentUser() {
@@ -0,0 +1,105 @@
+package com.digg.service;
+
+import com.digg.dto.BatchResult;
+import com.digg.dto.IngestStatus;
+import com.digg.entity.User;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the queue outside Quarkus against a batch service that blocks until released, so the
+// writer can be held mid-batch while the queue fills up or the application shuts down
+public class UserIngestQueueTest {
+
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicLong ids = new AtomicLong();
+
+    private UserIngestQueue queue;
+
+    @BeforeEach
+    public void setUp() {
+        queue = new UserIngestQueue();
+        queue.log = Logger.getLogger(UserIngestQueue.class);
+        queue.batchService = new UserBatchService() {
+            @Override
+            public List<BatchResult> createAll(List<User> users) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                List<BatchResult> results = new ArrayList<>(users.size());
+                for (int i = 0; i < users.size(); i++) {
+                    results.add(BatchResult.ok(i, ids.incrementAndGet(), Response.Status.CREATED));
+                }
+                return results;
+            }
+        };
+        queue.queueSize = 2;
+        queue.batchSize = 10;
+        queue.statusTtl = Duration.ofMinutes(1);
+        queue.shutdownTimeout = Duration.ofSeconds(10);
+        queue.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        queue.stop(null);
+    }
+
+    @Test
+    @DisplayName("Should refuse submissions once the queue is full")
+    public void testRejectsWhenFull() throws InterruptedException {
+        assertNotNull(queue.submit(user(1)));
+        assertTrue(writing.await(5, TimeUnit.SECONDS), "Writer did not pick up the first user");
+
+        // The writer holds the first user; the queue itself has room for two more
+        assertNotNull(queue.submit(user(2)));
+        assertNotNull(queue.submit(user(3)));
+        assertNull(queue.submit(user(4)));
+        assertEquals(2, queue.queued());
+        assertEquals(1, queue.rejected());
+    }
+
+    @Test
+    @DisplayName("Should write every queued user before shutting down")
+    public void testDrainsOnShutdown() throws InterruptedException {
+        List<String> submitted = new ArrayList<>();
+        submitted.add(queue.submit(user(1)));
+        assertTrue(writing.await(5, TimeUnit.SECONDS), "Writer did not pick up the first user");
+        submitted.add(queue.submit(user(2)));
+        submitted.add(queue.submit(user(3)));
+
+        release.countDown();
+        queue.stop(null);
+
+        assertEquals(0, queue.queued());
+        for (String id : submitted) {
+            assertEquals(IngestStatus.CREATED, queue.status(id).status(), id);
+        }
+        assertNull(queue.submit(user(4)));
+    }
+
+    private static User user(int n) {
+        return new User("Queued User " + n, n + " Queue St", "queued" + n + "@digg.com", "(555) 010-0000");
+    }
+}
@@ -37,38 +37,82 @@ api.interceptors.response.use(
 
 // User API functions
 export const userApi = {
-    // Get all users
-    async getAllUsers() {
-        const response = await api.get('/users')
+    // Get one page of users; pass the previous page's nextCursor to continue and
+    // optionally only the fields a view needs, e.g. 'name,email' (id is always included)
+    async getUsersPage(cursor = null, limit = 100, fields = null) {
+        const params = { limit, ...(cursor ? { after: cursor } : {}), ...(fields ? { fields } : {}) }
+        const response = await api.get('/users', { params })
         return response.data
     },
 
+    // Lazily page through all users, yielding one page of users at a time
+    async *getAllUsers(limit = 100, fields = null) {
+        let cursor = null
+        do {
+            const page = await this.getUsersPage(cursor, limit, fields)
+            yield page.items
+            cursor = page.nextCursor
+        } while (cursor)
+    },
+
     // Get user by ID
     async getUserById(id) {
         const response = await api.get(`/users/${id}`)
         return response.data
     },
 
+    // Resolve many ids with one request; returns [{ id, found, user }] in the order of ids
+    async getUsersByIds(ids) {
+        const response = await api.get('/users', { params: { ids: ids.join(',') } })
+        return response.data
+    },
+
     // Create new user
     async createUser(userData) {
         const response = await api.post('/users', userData)
         return response.data
     },
 
-    // Update user
-    async updateUser(id, userData) {
-        const response = await api.put(`/users/${id}`, userData)
+    // Queue a create; resolves to {id, status}, poll getIngestStatus(id) until it is no longer 'queued'
+    async createUserAsync(userData) {
+        const response = await api.post('/users', userData, { params: { async: true } })
         return response.data
     },
 
-    // Delete user
-    async deleteUser(id) {
-        await api.delete(`/users/${id}`)
+    async getIngestStatus(trackingId) {
+        const response = await api.get(`/users/ingest/${trackingId}`)
+        return response.data
+    },
+
+    // ETag of a user as served by the API; sent back as If-Match so stale edits fail with 412
+    userTag(user) {
+        return user.version === undefined ? undefined : `"${user.id}-${user.version}"`
+    },
+
+    // Update user; pass the user as loaded to reject the update if someone changed it since
+    async updateUser(id, userData, loaded = null) {
+        const tag = loaded ? this.userTag(loaded) : undefined
+        const response = await api.put(`/users/${id}`, userData, { headers: tag ? { 'If-Match': tag } : {} })
+        return response.data
+    },
+
+    // Change only the given fields, e.g. { telephone: '(555) 123-4567' }
+    async patchUser(id, fields, loaded = null) {
+        const tag = loaded ? this.userTag(loaded) : undefined
+        const headers = { 'Content-Type': 'application/merge-patch+json', ...(tag ? { 'If-Match': tag } : {}) }
+        await api.patch(`/users/${id}`, fields, { headers })
+    },
+
+    // Delete user; pass the user as loaded to only delete the version that was shown
+    async deleteUser(id, loaded = null) {
+        const tag = loaded ? this.userTag(loaded) : undefined
+        await api.delete(`/users/${id}`, { headers: tag ? { 'If-Match': tag } : {} })
     },
 
     // Search users by name
-    async searchUsers(name) {
-        const response = await api.get(`/users/search?name=${encodeURIComponent(name)}`)
+    async searchUsers(name, fields = null) {
+        const params = fields ? { name, fields } : { name }
+        const response = await api.get('/users/search', { params })
         return response.data
     },
 
@@ -78,6 +122,17 @@ export const userApi = {
         return response.data
     },
 
+    // Follow committed changes; handler(type, change) is called with type 'created', 'updated',
+    // 'deleted' or 'reset' (reload everything). EventSource reconnects by itself and resumes
+    // after the last event it saw. Call close() on the returned source to stop.
+    subscribeToChanges(handler) {
+        const source = new EventSource(`${API_BASE_URL}/users/changes`)
+        for (const type of ['created', 'updated', 'deleted', 'reset']) {
+            source.addEventListener(type, (event) => handler(type, JSON.parse(event.data)))
+        }
+        return source
+    },
+
     // Find user by email
     async getUserByEmail(email) {
         const response = await api.get(`/users/email/${encodeURIComponent(email)}`)